@@ -0,0 +1,37 @@
+package com.example.springboottestingcourse.benchmark;
+
+import com.example.springboottestingcourse.SpringBootTestingCourseApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.stream.Stream;
+
+/*
+    boots the application without a web server against an in-memory H2 database in MySQL mode,
+    so the benchmarks exercise the real service, repository and hibernate setup
+ */
+final class EmbeddedDatabase {
+
+    // passed as command line arguments so they take precedence over application.properties
+    private static final String[] PROPERTIES = {
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.show-sql=false",
+            "--spring.sql.init.mode=never",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=warn"
+    };
+
+    private EmbeddedDatabase() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        return new SpringApplicationBuilder(SpringBootTestingCourseApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(Stream.concat(Stream.of(PROPERTIES), Stream.of(extraProperties).map(p -> "--" + p))
+                        .toArray(String[]::new));
+    }
+}
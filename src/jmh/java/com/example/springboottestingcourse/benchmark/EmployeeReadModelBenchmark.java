@@ -0,0 +1,88 @@
+package com.example.springboottestingcourse.benchmark;
+
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.repository.EmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/*
+    one list request end to end, query plus json serialization, served from managed entities in a read-write
+    transaction (the old read path) and from EmployeeView records in a read-only transaction.
+    the allocation per request is the gc.alloc.rate.norm column of the gc profiler:
+        mvn -Pbenchmark verify -Djmh.args="EmployeeReadModelBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeReadModelBenchmark {
+
+    private static final int SEEDED_EMPLOYEES = 10_000;
+
+    @Param({"20", "500"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    private ObjectMapper objectMapper;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setup() {
+        context = EmbeddedDatabase.start();
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        employeeRepository.saveAll(IntStream.range(0, SEEDED_EMPLOYEES)
+                .mapToObj(i -> Employee.builder().firstname("first" + i)
+                        .lastname("last" + i).email("employee" + i + "@gmail.com").build())
+                .toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entityPage() {
+        long afterId = randomAfterId();
+        return readWrite.execute(status -> serialize(employeeRepository.findPageAfter(afterId, Limit.of(pageSize))));
+    }
+
+    @Benchmark
+    public byte[] viewPage() {
+        long afterId = randomAfterId();
+        return readOnly.execute(status -> serialize(employeeRepository.findViewPageAfter(afterId, Limit.of(pageSize))));
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long randomAfterId() {
+        return ThreadLocalRandom.current().nextInt(SEEDED_EMPLOYEES - pageSize);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.springboottestingcourse.benchmark;
+
+import com.example.springboottestingcourse.dto.EmployeeName;
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// the four custom query styles of EmployeeRepository next to the derived findByEmail and the covering name projection
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeRepositoryBenchmark {
+
+    private static final int SEEDED_EMPLOYEES = 10_000;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    @Setup
+    public void setup() {
+        context = EmbeddedDatabase.start();
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        employeeRepository.saveAll(IntStream.range(0, SEEDED_EMPLOYEES)
+                .mapToObj(i -> Employee.builder().firstname("first" + i)
+                        .lastname("last" + i).email("employee" + i + "@gmail.com").build())
+                .toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> findByEmail() {
+        return employeeRepository.findByEmail("employee" + randomIndex() + "@gmail.com");
+    }
+
+    @Benchmark
+    public List<Employee> findByJPQL() {
+        int i = randomIndex();
+        return employeeRepository.findByJPQL("first" + i, "last" + i);
+    }
+
+    @Benchmark
+    public List<Employee> findByJPQLNamedParams() {
+        int i = randomIndex();
+        return employeeRepository.findByJPQLNamedParams("first" + i, "last" + i);
+    }
+
+    @Benchmark
+    public List<Employee> findByNativeSQLWithIndexPrams() {
+        int i = randomIndex();
+        return employeeRepository.findByNativeSQLWithIndexPrams("first" + i, "last" + i);
+    }
+
+    @Benchmark
+    public List<Employee> findByNativeSQLWithNamedPrams() {
+        int i = randomIndex();
+        return employeeRepository.findByNativeSQLWithNamedPrams("first" + i, "last" + i);
+    }
+
+    @Benchmark
+    public List<EmployeeName> findNamesByName() {
+        int i = randomIndex();
+        return employeeRepository.findNamesByName("first" + i, "last" + i);
+    }
+
+    private static int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(SEEDED_EMPLOYEES);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.springboottestingcourse.benchmark;
+
+import com.example.springboottestingcourse.model.Employee;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// jackson (de)serialization of a single employee and of large employee lists, with the object mapper spring boot configures
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Employee employee;
+
+    private byte[] employeeJson;
+
+    @Setup
+    public void setup() throws IOException {
+        employee = employee(1);
+        employeeJson = objectMapper.writeValueAsBytes(employee);
+    }
+
+    @State(Scope.Benchmark)
+    public static class EmployeeList {
+
+        @Param({"1000", "100000"})
+        int size;
+
+        List<Employee> employees;
+
+        byte[] json;
+
+        JavaType type;
+
+        @Setup
+        public void setup(EmployeeSerializationBenchmark benchmark) throws IOException {
+            employees = LongStream.rangeClosed(1, size).mapToObj(EmployeeSerializationBenchmark::employee).toList();
+            json = benchmark.objectMapper.writeValueAsBytes(employees);
+            type = benchmark.objectMapper.getTypeFactory().constructCollectionType(List.class, Employee.class);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeEmployee() throws IOException {
+        return objectMapper.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public Employee deserializeEmployee() throws IOException {
+        return objectMapper.readValue(employeeJson, Employee.class);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] serializeEmployeeList(EmployeeList list) throws IOException {
+        return objectMapper.writeValueAsBytes(list.employees);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Employee> deserializeEmployeeList(EmployeeList list) throws IOException {
+        return objectMapper.readValue(list.json, list.type);
+    }
+
+    static Employee employee(long id) {
+        return Employee.builder().id(id).firstname("first" + id)
+                .lastname("last" + id).email("employee" + id + "@gmail.com").build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.springboottestingcourse.benchmark;
+
+import com.example.springboottestingcourse.dto.EmployeeBatchResult;
+import com.example.springboottestingcourse.dto.EmployeeView;
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+// EmployeeServiceImpl CRUD through the spring proxies (cache, transactions) against an embedded database
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    private static final int SEEDED_EMPLOYEES = 1000;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private long[] ids;
+
+    @Setup
+    public void setup() {
+        context = EmbeddedDatabase.start();
+        employeeService = context.getBean(EmployeeService.class);
+        List<EmployeeBatchResult> results = employeeService.saveEmployees(
+                IntStream.range(0, SEEDED_EMPLOYEES).mapToObj(i -> newEmployee()).toList());
+        ids = results.stream().mapToLong(EmployeeBatchResult::id).toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(newEmployee());
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(randomId());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<EmployeeView> getAllEmployees() {
+        return employeeService.getAllEmployees();
+    }
+
+    @Benchmark
+    public Optional<Employee> updateEmployee() {
+        return employeeService.updateEmployee(randomId(), newEmployee());
+    }
+
+    @Benchmark
+    public void saveAndDeleteEmployee() {
+        employeeService.deleteEmployee(employeeService.saveEmployee(newEmployee()).getId());
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private Employee newEmployee() {
+        long n = sequence.incrementAndGet();
+        return Employee.builder().firstname("first" + n)
+                .lastname("last" + n).email("employee" + n + "@gmail.com").build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.springboottestingcourse.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/*
+    the async employee service builds its own executor from these properties instead of taking an Executor bean,
+    one would make spring boot back off from the applicationTaskExecutor that spring mvc streams responses on
+ */
+@Configuration
+@EnableConfigurationProperties(EmployeeAsyncProperties.class)
+public class AsyncConfig {
+}
@@ -0,0 +1,44 @@
+package com.example.springboottestingcourse.config;
+
+import com.example.springboottestingcourse.model.Employee;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(EmployeeCacheProperties.class)
+public class CacheConfig {
+
+    public static final String EMPLOYEES_CACHE = "employees";
+
+    // rough per entry overhead of the entity, its boxed key and the cache node
+    private static final int ENTRY_OVERHEAD = 128;
+
+    @Bean
+    public CacheManager cacheManager(EmployeeCacheProperties properties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(EMPLOYEES_CACHE);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumWeight(properties.maxWeight())
+                .weigher((Object id, Object employee) -> weigh((Employee) employee))
+                .expireAfterWrite(properties.expireAfterWrite())
+                .recordStats());
+        // a missing id is not cached, so a null value can only come from a bug
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+
+    // approximate heap size of a cached employee in bytes, strings are counted as two bytes per char
+    static int weigh(Employee employee) {
+        return ENTRY_OVERHEAD + 2 * (length(employee.getFirstname())
+                + length(employee.getLastname()) + length(employee.getEmail()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
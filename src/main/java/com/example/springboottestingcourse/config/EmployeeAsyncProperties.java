@@ -0,0 +1,13 @@
+package com.example.springboottestingcourse.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// poolSize threads run queries, up to queueCapacity more wait for one, anything beyond is rejected straight away
+@ConfigurationProperties("employee.async")
+public record EmployeeAsyncProperties(@DefaultValue("16") int poolSize,
+                                      @DefaultValue("200") int queueCapacity,
+                                      @DefaultValue("5s") Duration timeout) {
+}
@@ -0,0 +1,15 @@
+package com.example.springboottestingcourse.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// a batch is loaded window after its first id arrives or as soon as it holds maxBatchSize ids, whichever comes first.
+// threads is the number of windows that can be loading at the same time
+@ConfigurationProperties("employee.batch-loader")
+public record EmployeeBatchLoaderProperties(@DefaultValue("true") boolean enabled,
+                                            @DefaultValue("2ms") Duration window,
+                                            @DefaultValue("100") int maxBatchSize,
+                                            @DefaultValue("4") int threads) {
+}
@@ -0,0 +1,12 @@
+package com.example.springboottestingcourse.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// maxWeight is an approximation of the bytes held by the employee cache
+@ConfigurationProperties("employee.cache")
+public record EmployeeCacheProperties(@DefaultValue("16777216") long maxWeight,
+                                      @DefaultValue("10m") Duration expireAfterWrite) {
+}
@@ -0,0 +1,12 @@
+package com.example.springboottestingcourse.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+// with a file every published change is appended to it as a json line, without one the changes are only logged.
+// the pause between relay runs, employee.outbox.relay-interval, is read by the @Scheduled of EmployeeOutboxRelay
+@ConfigurationProperties("employee.outbox")
+public record EmployeeOutboxProperties(@DefaultValue("500") int batchSize, Path file) {
+}
@@ -0,0 +1,10 @@
+package com.example.springboottestingcourse.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// batchSize soft deleted rows are deleted per transaction, a run keeps going until a batch comes back short.
+// the pause between runs, employee.purge.interval, is read by the @Scheduled of EmployeePurgeJob
+@ConfigurationProperties("employee.purge")
+public record EmployeePurgeProperties(@DefaultValue("500") int batchSize) {
+}
@@ -0,0 +1,17 @@
+package com.example.springboottestingcourse.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// bufferSize is the number of employees with changes not yet sent to one subscriber before it is dropped as too slow,
+// sendTimeout how long a single send may block on a client that stopped reading before it is dropped as well.
+// the pause between heartbeats, employee.stream.heartbeat-interval, is read by the @Scheduled of EmployeeChangeBroadcaster
+@ConfigurationProperties("employee.stream")
+public record EmployeeStreamProperties(@DefaultValue("1000") int maxSubscribers,
+                                       @DefaultValue("256") int bufferSize,
+                                       @DefaultValue("4") int senderThreads,
+                                       @DefaultValue("30m") Duration timeout,
+                                       @DefaultValue("10s") Duration sendTimeout) {
+}
@@ -0,0 +1,28 @@
+package com.example.springboottestingcourse.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/*
+    write-behind for PUT /api/v1/employees/{id} without If-Match, see EmployeeWriteBehindBuffer.
+    a flush starts once batchSize employees are waiting, at the latest after employee.write-behind.flush-interval
+    (read by @Scheduled). past maxPending waiting employees the writers flush themselves, which holds them back.
+    a flushed request gives up with 504 after flushTimeout, its update is still written
+ */
+@ConfigurationProperties("employee.write-behind")
+public record EmployeeWriteBehindProperties(@DefaultValue("false") boolean enabled,
+                                            @DefaultValue("FLUSHED") Durability durability,
+                                            @DefaultValue("16") int stripes,
+                                            @DefaultValue("200") int batchSize,
+                                            @DefaultValue("10000") int maxPending,
+                                            @DefaultValue("5s") Duration flushTimeout) {
+
+    public enum Durability {
+        // the request is answered with 202 once buffered, updates still waiting are lost if the process dies
+        BUFFERED,
+        // the request waits for the flush that commits its update, the bursts are still coalesced and batched
+        FLUSHED
+    }
+}
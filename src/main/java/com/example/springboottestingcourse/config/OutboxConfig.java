@@ -0,0 +1,24 @@
+package com.example.springboottestingcourse.config;
+
+import com.example.springboottestingcourse.service.EmployeeChangeSink;
+import com.example.springboottestingcourse.service.impl.FileEmployeeChangeSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// a broker backed sink replaces the bean below, the relay and the feed do not change
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(EmployeeOutboxProperties.class)
+public class OutboxConfig {
+
+    @Bean
+    public EmployeeChangeSink employeeChangeSink(EmployeeOutboxProperties properties, ObjectMapper objectMapper) {
+        if (properties.file() != null)
+            return new FileEmployeeChangeSink(properties.file(), objectMapper);
+        return changes -> log.debug("Published employee changes {} to {}", changes.getFirst().sequence(),
+                changes.getLast().sequence());
+    }
+}
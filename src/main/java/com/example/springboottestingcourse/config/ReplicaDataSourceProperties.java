@@ -0,0 +1,20 @@
+package com.example.springboottestingcourse.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+// username and password fall back to the primary's, the lag query and column default to mysql 8 replica status
+@ConfigurationProperties("employee.datasource.replicas")
+public record ReplicaDataSourceProperties(List<String> urls,
+                                          String username,
+                                          String password,
+                                          @DefaultValue("10") int maximumPoolSize,
+                                          @DefaultValue("5s") Duration maxLag,
+                                          @DefaultValue("1s") Duration lagCheckInterval,
+                                          @DefaultValue("5s") Duration stickiness,
+                                          @DefaultValue("SHOW REPLICA STATUS") String lagQuery,
+                                          @DefaultValue("Seconds_Behind_Source") String lagColumn) {
+}
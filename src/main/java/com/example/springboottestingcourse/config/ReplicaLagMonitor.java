@@ -0,0 +1,81 @@
+package com.example.springboottestingcourse.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+    polls every replica for its replication lag and keeps the indexes of those within the tolerance.
+    a replica that can not be reached, has replication stopped (a null lag) or is too far behind stops
+    receiving reads until a later check finds it caught up, with no healthy replica reads go to the primary
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    private final List<DataSource> replicas;
+
+    private final ReplicaDataSourceProperties properties;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("replica-lag-monitor").daemon().factory());
+
+    private volatile List<Integer> healthy = List.of();
+
+    public ReplicaLagMonitor(List<DataSource> replicas, ReplicaDataSourceProperties properties) {
+        this.replicas = List.copyOf(replicas);
+        this.properties = properties;
+    }
+
+    // the first check runs right away on the monitor thread, a replica that does not answer can not hold up startup.
+    // until it reports no replica counts as healthy and reads go to the primary
+    public void start() {
+        long interval = properties.lagCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public List<Integer> healthyReplicas() {
+        return healthy;
+    }
+
+    void refresh() {
+        List<Integer> within = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Duration lag = lag(replicas.get(i));
+            if (lag != null && lag.compareTo(properties.maxLag()) <= 0)
+                within.add(i);
+            else if (healthy.contains(i))
+                log.warn("Replica {} taken out of read rotation, lag {}", i, lag == null ? "unknown" : lag);
+        }
+        healthy = List.copyOf(within);
+    }
+
+    // an empty status means the server is not replicating from anything, so it can not be behind
+    Duration lag(DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery(properties.lagQuery())) {
+            if (!status.next())
+                return Duration.ZERO;
+            long seconds = status.getLong(properties.lagColumn());
+            return status.wasNull() ? null : Duration.ofSeconds(seconds);
+        } catch (SQLException e) {
+            log.debug("Replica lag check failed", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.springboottestingcourse.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/*
+    target of read only connections only, it spreads them round robin over the replicas the lag monitor
+    reports as caught up. the primary serves them instead while none is, or while the current thread is
+    pinned to it so a client reads its own writes. closing it stops the monitor and closes the replica pools
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private final List<DataSource> replicas;
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaLagMonitor lagMonitor) {
+        this.replicas = List.copyOf(replicas);
+        this.lagMonitor = lagMonitor;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++)
+            targets.put(i, replicas.get(i));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    public static void pinToPrimary(boolean pinned) {
+        if (pinned)
+            PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        else
+            PINNED_TO_PRIMARY.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    // for reads that fill a cache, the cached copy outlives the replica lag and would keep a stale row
+    public static <T> T onPrimary(Supplier<T> read) {
+        boolean pinned = isPinnedToPrimary();
+        pinToPrimary(true);
+        try {
+            return read.get();
+        } finally {
+            pinToPrimary(pinned);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (isPinnedToPrimary())
+            return PRIMARY;
+        List<Integer> healthy = lagMonitor.healthyReplicas();
+        if (healthy.isEmpty())
+            return PRIMARY;
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+
+    @Override
+    public void close() throws Exception {
+        lagMonitor.close();
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable)
+                closeable.close();
+        }
+    }
+}
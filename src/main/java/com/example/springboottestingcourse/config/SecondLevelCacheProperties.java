@@ -0,0 +1,14 @@
+package com.example.springboottestingcourse.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+// hibernate cache regions by name, a region without maximumSize or expireAfterWrite is unbounded in that respect
+@ConfigurationProperties("employee.second-level-cache")
+public record SecondLevelCacheProperties(Map<String, Region> regions) {
+
+    public record Region(Long maximumSize, Duration expireAfterWrite) {
+    }
+}
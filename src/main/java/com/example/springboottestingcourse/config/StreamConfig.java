@@ -0,0 +1,9 @@
+package com.example.springboottestingcourse.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(EmployeeStreamProperties.class)
+public class StreamConfig {
+}
@@ -0,0 +1,57 @@
+package com.example.springboottestingcourse.controller;
+
+import com.example.springboottestingcourse.dto.EmployeePage;
+import com.example.springboottestingcourse.dto.EmployeeView;
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.service.EmployeeAsyncService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/*
+    the servlet thread returns to tomcat as soon as the future is handed back and the response is written
+    once it completes, so slow queries queue up in the employee query pool instead of holding request threads
+ */
+@RestController
+@RequestMapping("api/v1/employees/async")
+public class EmployeeAsyncController {
+
+    EmployeeAsyncService employeeAsyncService;
+
+    @Autowired
+    public EmployeeAsyncController(EmployeeAsyncService employeeAsyncService) {
+        this.employeeAsyncService = employeeAsyncService;
+    }
+
+    @GetMapping
+    public CompletableFuture<List<EmployeeView>> getAllEmployees() {
+        return employeeAsyncService.getAllEmployees();
+    }
+
+    @GetMapping(params = "limit")
+    public CompletableFuture<EmployeePage<EmployeeView>> getEmployeesPage(@RequestParam(defaultValue = "0") long afterId,
+                                                                         @RequestParam int limit) {
+        return employeeAsyncService.getEmployeesPage(afterId, limit);
+    }
+
+    @GetMapping("/search")
+    public CompletableFuture<List<EmployeeView>> searchEmployees(@RequestParam String firstname, @RequestParam String lastname) {
+        return employeeAsyncService.findEmployeesByName(firstname, lastname);
+    }
+
+    @GetMapping("{id}")
+    public CompletableFuture<ResponseEntity<Employee>> getEmployee(@PathVariable long id) {
+        return employeeAsyncService.getEmployeeById(id)
+                .thenApply(employee -> employee.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build()));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<Employee> createEmployee(@RequestBody Employee employee) {
+        return employeeAsyncService.saveEmployee(employee);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.springboottestingcourse.controller;
+
+import com.example.springboottestingcourse.dto.EmployeeChange;
+import com.example.springboottestingcourse.dto.EmployeePage;
+import com.example.springboottestingcourse.service.EmployeeOutboxService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/*
+    change feed, a consumer starts at after=0 and keeps asking with the nextCursor of the previous page. unlike
+    re-reading /api/v1/employees a poll with nothing new costs one index lookup and returns an empty page
+ */
+@RestController
+@RequestMapping("api/v1/employees/changes")
+public class EmployeeChangeFeedController {
+
+    EmployeeOutboxService outboxService;
+
+    @Autowired
+    public EmployeeChangeFeedController(EmployeeOutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    // the cursor never goes back to null, a caught up consumer polls again with the sequence it already has
+    @GetMapping
+    public EmployeePage<EmployeeChange> getChanges(@RequestParam(defaultValue = "0") long after,
+                                                   @RequestParam(defaultValue = "100") int limit) {
+        List<EmployeeChange> changes = outboxService.getChanges(after, limit);
+        return new EmployeePage<>(changes, changes.isEmpty() ? after : changes.getLast().sequence());
+    }
+}
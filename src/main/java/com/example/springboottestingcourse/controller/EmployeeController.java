@@ -1,33 +1,172 @@
 package com.example.springboottestingcourse.controller;
 
+import com.example.springboottestingcourse.config.EmployeeWriteBehindProperties;
+import com.example.springboottestingcourse.dto.EmployeeBatchResult;
+import com.example.springboottestingcourse.dto.EmployeeDeleteReport;
+import com.example.springboottestingcourse.dto.EmployeeName;
+import com.example.springboottestingcourse.dto.EmployeePage;
+import com.example.springboottestingcourse.dto.EmployeeVersion;
+import com.example.springboottestingcourse.dto.EmployeeView;
 import com.example.springboottestingcourse.model.Employee;
 import com.example.springboottestingcourse.service.EmployeeService;
+import com.example.springboottestingcourse.service.EmployeeWriteBehindBuffer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("api/v1/employees")
 public class EmployeeController {
 
+    static final int MAX_BATCH_SIZE = 10_000;
+
+    // page size of a ?fields= read that does not pass a limit
+    static final int DEFAULT_FIELDS_PAGE_SIZE = 100;
+
+    static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     EmployeeService employeeService;
 
+    ObjectMapper objectMapper;
+
+    EmployeeWriteBehindBuffer writeBehindBuffer;
+
     @Autowired
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper,
+                              EmployeeWriteBehindBuffer writeBehindBuffer) {
         this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.writeBehindBuffer = writeBehindBuffer;
     }
 
+    /*
+        the aggregate version is read before the list, a write in between makes the etag older than the body
+        and only costs the client one extra 200. there is no Last-Modified because deletes leave no timestamp
+     */
     @GetMapping
-    public List<Employee> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    public ResponseEntity<List<EmployeeView>> getAllEmployees(WebRequest request) {
+        String etag = employeeService.getEmployeesVersion().etag();
+        if (request.checkNotModified(etag))
+            return null;
+
+        return ResponseEntity.ok().eTag(etag).body(employeeService.getAllEmployees());
+    }
+
+    @GetMapping(params = "limit")
+    public EmployeePage<EmployeeView> getEmployeesPage(@RequestParam(defaultValue = "0") long afterId, @RequestParam int limit) {
+        return employeeService.getEmployeesPage(afterId, limit);
+    }
+
+    /*
+        sparse fieldsets, ?fields=id,email narrows both the select list and the json to the named fields.
+        the mappings below only differ from the full ones by the fields param, which makes them the more specific match.
+        the list is always a keyset page, without a limit the first DEFAULT_FIELDS_PAGE_SIZE rows, so a narrow
+        select over the whole table is never built in memory
+     */
+    @GetMapping(params = "fields")
+    public EmployeePage<Map<String, Object>> getAllEmployeeFields(@RequestParam(defaultValue = "0") long afterId,
+                                                                  @RequestParam List<String> fields) {
+        return employeeService.getEmployeeFieldsPage(fields, afterId, DEFAULT_FIELDS_PAGE_SIZE);
+    }
+
+    @GetMapping(params = {"limit", "fields"})
+    public EmployeePage<Map<String, Object>> getEmployeeFieldsPage(@RequestParam(defaultValue = "0") long afterId,
+                                                                   @RequestParam int limit, @RequestParam List<String> fields) {
+        return employeeService.getEmployeeFieldsPage(fields, afterId, limit);
     }
 
+    // writes the json array row by row while the cursor is read, so the table is never held in memory
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody streamAllEmployees() {
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                employeeService.streamAllEmployees(employee -> {
+                    try {
+                        generator.writeObject(employee);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    @GetMapping("/search")
+    public List<EmployeeView> searchEmployees(@RequestParam String firstname, @RequestParam String lastname) {
+        return employeeService.findEmployeesByName(firstname, lastname);
+    }
+
+    @GetMapping(value = "/search", params = "fields")
+    public List<Map<String, Object>> searchEmployeeFields(@RequestParam String firstname, @RequestParam String lastname,
+                                                          @RequestParam List<String> fields) {
+        return employeeService.findEmployeeFieldsByName(fields, firstname, lastname);
+    }
+
+    @GetMapping("/search/names")
+    public List<EmployeeName> searchEmployeeNames(@RequestParam String firstname, @RequestParam String lastname) {
+        return employeeService.findEmployeeNamesByName(firstname, lastname);
+    }
+
+    // a revalidation reads only the version columns, the row is loaded and serialized once the client copy is stale
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployee(@PathVariable long id) {
-        return employeeService.getEmployeeById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Employee> getEmployee(@PathVariable long id, WebRequest request) {
+        if (isRevalidation(request)) {
+            Optional<EmployeeVersion> version = employeeService.getEmployeeVersion(id);
+            if (version.isEmpty())
+                return ResponseEntity.notFound().build();
+            if (checkNotModified(request, version.get().version(), version.get().updatedAt()))
+                return null;
+        }
+        return employeeService.getEmployeeById(id).map(EmployeeController::withValidators)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getEmployeeFields(@PathVariable long id, @RequestParam List<String> fields) {
+        return employeeService.getEmployeeFieldsById(fields, id).map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static boolean isRevalidation(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    private static boolean checkNotModified(WebRequest request, long version, Instant updatedAt) {
+        return updatedAt == null ? request.checkNotModified(String.valueOf(version))
+                : request.checkNotModified(String.valueOf(version), updatedAt.toEpochMilli());
+    }
+
+    private static ResponseEntity<Employee> withValidators(Employee employee) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(String.valueOf(employee.getVersion()));
+        if (employee.getUpdatedAt() != null)
+            response.lastModified(employee.getUpdatedAt());
+        return response.body(employee);
+    }
+
+    private static ResponseEntity<Employee> withLastModified(Employee employee) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (employee.getUpdatedAt() != null)
+            response.lastModified(employee.getUpdatedAt());
+        return response.body(employee);
     }
 
     @PostMapping
@@ -36,17 +175,107 @@ public class EmployeeController {
         return employeeService.saveEmployee(employee);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<EmployeeBatchResult>> createEmployees(@RequestBody List<Employee> employees){
+        if (employees.isEmpty() || employees.size() > MAX_BATCH_SIZE)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        return ResponseEntity.ok(employeeService.saveEmployees(employees));
+    }
+
+    // with If-Match the update only applies while the row is still at that version, otherwise 412
     @PutMapping("/{id}")
-    public ResponseEntity<Employee> updateEmployee(@PathVariable Long id, @RequestBody Employee employee){
-        return employeeService.updateEmployee(id, employee).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<Employee> updateEmployee(@PathVariable Long id, @RequestBody Employee employee,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws TimeoutException {
+        Long expectedVersion = expectedVersion(ifMatch);
+        if (expectedVersion != null) {
+            writeBehindBuffer.flush(id);
+            return withValidators(employeeService.updateEmployee(id, employee, expectedVersion));
+        }
+
+        // with write-behind on, updates to the same employee arriving close together are written as one
+        if (writeBehindBuffer.isEnabled()) {
+            if (writeBehindBuffer.durability() == EmployeeWriteBehindProperties.Durability.BUFFERED) {
+                writeBehindBuffer.submit(id, employee);
+                return ResponseEntity.accepted().build();
+            }
+            return writeBehindBuffer.submitAndWait(id, employee).map(EmployeeController::withValidators)
+                    .orElse(ResponseEntity.notFound().build());
+        }
+
+        // a blind overwrite does not learn the new version, the client reads it back or sends If-Match when it needs it
+        return employeeService.updateEmployee(id, employee).map(EmployeeController::withLastModified)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // json merge patch (rfc 7396), only the members present in the body are changed
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Employee> patchEmployee(@PathVariable Long id, @RequestBody Map<String, Object> patch,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        // a patch applies on top of the updates still waiting in the write-behind buffer
+        writeBehindBuffer.flush(id);
+        Long expectedVersion = expectedVersion(ifMatch);
+        if (expectedVersion != null)
+            return withValidators(employeeService.patchEmployee(id, patch, expectedVersion));
+
+        return employeeService.patchEmployee(id, patch).map(EmployeeController::withValidators)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteEmployee(@PathVariable Long id) {
+    public ResponseEntity<String> deleteEmployee(@PathVariable Long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (id == null || id <= 0)
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 
-        employeeService.deleteEmployee(id);
+        // an unconditional delete needs no flush, the buffered update of a deleted employee finds no row
+        Long expectedVersion = expectedVersion(ifMatch);
+        if (expectedVersion != null) {
+            writeBehindBuffer.flush(id);
+            employeeService.deleteEmployee(id, expectedVersion);
+        } else {
+            employeeService.deleteEmployee(id);
+        }
         return new ResponseEntity<>("Employee is deleted with ID: " + id,HttpStatus.OK);
     }
+
+    /*
+        bulk delete by ?ids=1,2,3 or by first and/or last name, at least one criterion so the whole table can not go
+        by accident. the rows are soft deleted, gone from every read straight away and purged in the background.
+        both are bounded by MAX_BATCH_SIZE, a delete by name that reports that many deleted rows may have left more
+     */
+    @DeleteMapping
+    public ResponseEntity<EmployeeDeleteReport> deleteEmployees(@RequestParam(required = false) List<Long> ids,
+                                                                @RequestParam(required = false) String firstname,
+                                                                @RequestParam(required = false) String lastname) {
+        if (ids != null) {
+            if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE || firstname != null || lastname != null)
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            return ResponseEntity.ok(new EmployeeDeleteReport(employeeService.deleteEmployees(ids)));
+        }
+        if (firstname == null && lastname == null)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        return ResponseEntity.ok(new EmployeeDeleteReport(employeeService.deleteEmployeesByName(firstname, lastname, MAX_BATCH_SIZE)));
+    }
+
+    /*
+        the version named by an If-Match header, null when there is no precondition or it is "*".
+        if-match compares strongly, so a weak or foreign etag can never match and fails with 412
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*"))
+            return null;
+
+        String etag = ifMatch.trim();
+        if (etag.length() > 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+            try {
+                return Long.parseLong(etag.substring(1, etag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to the failed precondition
+            }
+        }
+        throw new OptimisticLockingFailureException("If-Match does not name a version of this employee: " + etag);
+    }
 }
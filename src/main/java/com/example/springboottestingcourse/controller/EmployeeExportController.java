@@ -0,0 +1,167 @@
+package com.example.springboottestingcourse.controller;
+
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/*
+    exports for reporting jobs. rows come from the forward only cursor of EmployeeService.streamAllEmployees
+    and are written to the response as they are read, gzip is applied on the fly when the client accepts it
+ */
+@RestController
+@RequestMapping("api/v1/employees/export")
+public class EmployeeExportController {
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    static final String CSV_HEADER = "id,firstname,lastname,email,version,updatedAt\n";
+
+    // bytes compressed before the deflater hands a block to the response
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    EmployeeService employeeService;
+
+    ObjectMapper objectMapper;
+
+    @Autowired
+    public EmployeeExportController(EmployeeService employeeService, ObjectMapper objectMapper) {
+        this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping("/csv")
+    public ResponseEntity<StreamingResponseBody> exportCsv(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export(TEXT_CSV_VALUE, "employees.csv", acceptsGzip(acceptEncoding), outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            writer.write(CSV_HEADER);
+            employeeService.streamAllEmployees(employee -> {
+                try {
+                    writeCsvRow(writer, employee);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        });
+    }
+
+    @GetMapping("/ndjson")
+    public ResponseEntity<StreamingResponseBody> exportNdjson(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export(APPLICATION_NDJSON_VALUE, "employees.ndjson", acceptsGzip(acceptEncoding), outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                // closing flushes the generator but leaves the stream open for the gzip trailer
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // one object per line instead of the space jackson puts between root values
+                generator.setRootValueSeparator(null);
+                employeeService.streamAllEmployees(employee -> {
+                    try {
+                        generator.writeObject(employee);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        });
+    }
+
+    private static ResponseEntity<StreamingResponseBody> export(String contentType, String filename, boolean gzip,
+                                                                StreamingResponseBody body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!gzip)
+            return response.body(body);
+
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(outputStream -> {
+            // finish() writes the gzip trailer, the response stream itself is closed by the container
+            GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE);
+            body.writeTo(gzipStream);
+            gzipStream.finish();
+        });
+    }
+
+    // gzip unless the client did not ask for it or refused it with q=0. "*" stands for every coding the header does
+    // not name, so it only counts when gzip is not listed itself
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+
+        Double wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip"))
+                return quality(parts) > 0;
+            if (name.equals("*"))
+                wildcard = quality(parts);
+        }
+        return wildcard != null && wildcard > 0;
+    }
+
+    // a q value that does not parse is ignored, the coding then keeps the default weight of 1
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim().replace(" ", "");
+            if (!parameter.startsWith("q="))
+                continue;
+            try {
+                return Double.parseDouble(parameter.substring(2));
+            } catch (NumberFormatException e) {
+                return 1;
+            }
+        }
+        return 1;
+    }
+
+    private static void writeCsvRow(Writer writer, Employee employee) throws IOException {
+        writer.write(Long.toString(employee.getId()));
+        writer.write(',');
+        writeCsvField(writer, employee.getFirstname());
+        writer.write(',');
+        writeCsvField(writer, employee.getLastname());
+        writer.write(',');
+        writeCsvField(writer, employee.getEmail());
+        writer.write(',');
+        writer.write(Long.toString(employee.getVersion()));
+        writer.write(',');
+        if (employee.getUpdatedAt() != null)
+            writer.write(employee.getUpdatedAt().toString());
+        writer.write('\n');
+    }
+
+    // rfc 4180 quoting, only for values that need it
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null)
+            return;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.springboottestingcourse.controller;
+
+import com.example.springboottestingcourse.dto.EmployeeImportReport;
+import com.example.springboottestingcourse.service.EmployeeImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// bulk onboarding, the body is consumed as a stream while it is uploaded and never buffered as a whole
+@RestController
+@RequestMapping("api/v1/employees/import")
+public class EmployeeImportController {
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    EmployeeImportService employeeImportService;
+
+    @Autowired
+    public EmployeeImportController(EmployeeImportService employeeImportService) {
+        this.employeeImportService = employeeImportService;
+    }
+
+    @PostMapping(consumes = TEXT_CSV_VALUE)
+    public EmployeeImportReport importCsv(InputStream body) throws IOException {
+        return employeeImportService.importEmployees(body, EmployeeImportService.Format.CSV);
+    }
+
+    @PostMapping(consumes = APPLICATION_NDJSON_VALUE)
+    public EmployeeImportReport importNdjson(InputStream body) throws IOException {
+        return employeeImportService.importEmployees(body, EmployeeImportService.Format.NDJSON);
+    }
+}
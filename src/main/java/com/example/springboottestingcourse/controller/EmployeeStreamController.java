@@ -0,0 +1,35 @@
+package com.example.springboottestingcourse.controller;
+
+import com.example.springboottestingcourse.service.EmployeeChangeBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/*
+    server-sent events for dashboards, a "saved" event carries the employee and a "deleted" event its id.
+    only changes made after subscribing are sent, a client loads the list first and then applies the events.
+    when the stream ends, e.g. because the client fell too far behind, it reconnects and loads the list again
+ */
+@RestController
+@RequestMapping("api/v1/employees/stream")
+public class EmployeeStreamController {
+
+    EmployeeChangeBroadcaster broadcaster;
+
+    @Autowired
+    public EmployeeStreamController(EmployeeChangeBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe() {
+        return broadcaster.subscribe()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.springboottestingcourse.controller;
+
+import com.example.springboottestingcourse.dto.EmployeeSuggestion;
+import com.example.springboottestingcourse.service.EmployeeSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// typeahead over name and email prefixes, answered from memory
+@RestController
+@RequestMapping("api/v1/employees/suggest")
+public class EmployeeSuggestController {
+
+    EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    public EmployeeSuggestController(EmployeeSearchIndex employeeSearchIndex) {
+        this.employeeSearchIndex = employeeSearchIndex;
+    }
+
+    @GetMapping
+    public List<EmployeeSuggestion> suggest(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return employeeSearchIndex.suggest(q, limit);
+    }
+}
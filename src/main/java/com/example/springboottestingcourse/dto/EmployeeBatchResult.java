@@ -0,0 +1,21 @@
+package com.example.springboottestingcourse.dto;
+
+// outcome of one item of a batch create, index is the position of the item in the request
+public record EmployeeBatchResult(int index, String email, Status status, Long id, String message) {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID
+    }
+
+    public static EmployeeBatchResult created(int index, String email, long id) {
+        return new EmployeeBatchResult(index, email, Status.CREATED, id, null);
+    }
+
+    public static EmployeeBatchResult duplicate(int index, String email) {
+        return new EmployeeBatchResult(index, email, Status.DUPLICATE, null, "Employee already found with email: " + email);
+    }
+
+    public static EmployeeBatchResult invalid(int index, String email, String message) {
+        return new EmployeeBatchResult(index, email, Status.INVALID, null, message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.springboottestingcourse.dto;
+
+import com.example.springboottestingcourse.model.EmployeeOutboxEvent;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+/*
+    a published outbox event as sinks and the change feed see it. delivery is at least once and a redelivered event
+    may carry a new sequence, consumers that must not apply a change twice dedupe by eventId
+ */
+public record EmployeeChange(long sequence, long eventId, EmployeeOutboxEvent.Type type, long employeeId,
+                             @JsonRawValue String employee, Instant occurredAt) {
+
+    public static EmployeeChange of(EmployeeOutboxEvent event) {
+        return new EmployeeChange(event.getSequence(), event.getId(), event.getType(), event.getEmployeeId(),
+                event.getPayload(), event.getCreatedAt());
+    }
+}
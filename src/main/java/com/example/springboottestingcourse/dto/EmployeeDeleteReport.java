@@ -0,0 +1,5 @@
+package com.example.springboottestingcourse.dto;
+
+// outcome of a bulk delete, ids that did not exist or were already deleted are not counted
+public record EmployeeDeleteReport(int deleted) {
+}
@@ -0,0 +1,11 @@
+package com.example.springboottestingcourse.dto;
+
+import java.util.List;
+
+/*
+    summary of a bulk import. errors holds the rejected rows, index being the line number in the upload,
+    and stops growing at EmployeeImportService.MAX_REPORTED_ERRORS, errorsTruncated tells when rows were left out
+ */
+public record EmployeeImportReport(long rows, long created, long duplicates, long invalid,
+                                   List<EmployeeBatchResult> errors, boolean errorsTruncated) {
+}
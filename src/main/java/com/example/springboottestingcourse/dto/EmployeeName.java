@@ -0,0 +1,5 @@
+package com.example.springboottestingcourse.dto;
+
+// read only projection of a name lookup, every column is available from the first/last name index
+public record EmployeeName(long id, String firstname, String lastname) {
+}
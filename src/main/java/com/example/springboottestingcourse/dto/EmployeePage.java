@@ -0,0 +1,7 @@
+package com.example.springboottestingcourse.dto;
+
+import java.util.List;
+
+// one page of a keyset paginated listing, nextCursor is the afterId of the next page or null on the last page
+public record EmployeePage<T>(List<T> content, Long nextCursor) {
+}
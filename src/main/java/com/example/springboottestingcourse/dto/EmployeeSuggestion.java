@@ -0,0 +1,5 @@
+package com.example.springboottestingcourse.dto;
+
+// typeahead hit served from EmployeeSearchIndex, without a database round trip
+public record EmployeeSuggestion(long id, String firstname, String lastname, String email) {
+}
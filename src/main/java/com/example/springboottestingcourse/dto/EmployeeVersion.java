@@ -0,0 +1,7 @@
+package com.example.springboottestingcourse.dto;
+
+import java.time.Instant;
+
+// validators of a single employee, read without loading the entity to answer conditional requests
+public record EmployeeVersion(long version, Instant updatedAt) {
+}
@@ -0,0 +1,7 @@
+package com.example.springboottestingcourse.dto;
+
+import java.time.Instant;
+
+// read model of the list and search endpoints, serialized exactly like Employee but never a managed entity
+public record EmployeeView(long id, String firstname, String lastname, String email, long version, Instant updatedAt) {
+}
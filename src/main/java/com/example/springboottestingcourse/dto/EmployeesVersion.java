@@ -0,0 +1,18 @@
+package com.example.springboottestingcourse.dto;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/*
+    aggregate validator of the whole employee collection. an update bumps the version sum and a delete lowers the
+    count. ids come from pooled blocks, so an insert can land below the highest id, and together with a delete of a
+    row at version 0 neither count, max id nor version sum would move. every insert and update stamps updatedAt with
+    the current time, which raises lastUpdatedAt, and deleting the latest written row lowers it
+ */
+public record EmployeesVersion(long count, long maxId, long versionSum, Instant lastUpdatedAt) {
+
+    public String etag() {
+        long lastUpdated = lastUpdatedAt == null ? 0 : ChronoUnit.MICROS.between(Instant.EPOCH, lastUpdatedAt);
+        return count + "-" + maxId + "-" + versionSum + "-" + lastUpdated;
+    }
+}
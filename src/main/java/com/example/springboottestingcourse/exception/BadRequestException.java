@@ -0,0 +1,8 @@
+package com.example.springboottestingcourse.exception;
+
+// the client sent something the service can not act on, e.g. a patch of an unknown field or a malformed upload
+public class BadRequestException extends RuntimeException{
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
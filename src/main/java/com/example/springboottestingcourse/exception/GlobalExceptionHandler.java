@@ -0,0 +1,51 @@
+package com.example.springboottestingcourse.exception;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.concurrent.TimeoutException;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    // thrown when a create collides with an existing employee
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<String> handleResourceNotFound(ResourceNotFoundException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    // e.g. an update that moves an employee onto an email that is already taken
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        return new ResponseEntity<>("Employee conflicts with existing data", HttpStatus.CONFLICT);
+    }
+
+    // e.g. a patch that removes a required field or names one that does not exist
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<String> handleBadRequest(BadRequestException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    // an If-Match version that is no longer current, or a write that lost the race against another one
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.PRECONDITION_FAILED);
+    }
+
+    // the employee query pool and its queue are full, the client may retry once the load drops
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<String> handleTaskRejected(TaskRejectedException ex) {
+        return new ResponseEntity<>("Too many pending employee queries", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // an async call that did not complete within employee.async.timeout, or a write-behind flush within its flush-timeout
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<String> handleTimeout(TimeoutException ex) {
+        return new ResponseEntity<>("Employee request timed out", HttpStatus.GATEWAY_TIMEOUT);
+    }
+}
@@ -1,22 +1,46 @@
 package com.example.springboottestingcourse.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.io.Serializable;
+import java.time.Instant;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "employees")
+// updates list only the dirty columns, so a one field PATCH writes one column
+@DynamicUpdate
+// second-level cached, read-write soft locks an entry while a transaction changes it so no reader sees it half way
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Employee.CACHE_REGION)
+// soft deleted rows are left out of every jpql and criteria query, native queries have to filter them themselves
+@SQLRestriction("deleted_at is null")
+@Table(name = "employees",
+        uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_CONSTRAINT, columnNames = "email"),
+        indexes = @Index(name = "idx_employees_first_last", columnList = "first_name, last_name"))
 public class Employee  implements Serializable {
+
+    public static final String EMAIL_CONSTRAINT = "uk_employees_email";
+
+    public static final String CACHE_REGION = "employee";
+
+    // pooled sequence instead of identity so hibernate can group inserts into jdbc batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = 50)
     private long id;
 
     @Column(name = "first_name", nullable = false)
@@ -27,4 +51,20 @@ public class Employee  implements Serializable {
 
     @Column(nullable = false)
     private String email;
+
+    // bumped by every write, it is the strong etag of the employee
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
+    // set on insert and on every update, served as Last-Modified
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant updatedAt;
+
+    // set by a bulk delete, the row stays hidden until EmployeePurgeJob deletes it and frees its email
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
 }
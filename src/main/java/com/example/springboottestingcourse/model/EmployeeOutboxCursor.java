@@ -0,0 +1,26 @@
+package com.example.springboottestingcourse.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// the single row the relay locks while it publishes, so relays of several instances take turns and never share a sequence
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "employee_outbox_cursor")
+public class EmployeeOutboxCursor {
+
+    public static final int ID = 1;
+
+    @Id
+    private int id;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+}
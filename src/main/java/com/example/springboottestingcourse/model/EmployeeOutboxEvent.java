@@ -0,0 +1,53 @@
+package com.example.springboottestingcourse.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/*
+    one change of one employee, written in the transaction that made it. the relay numbers the events in the order it
+    publishes them, ids come from a pooled sequence and commit out of order so they can not be followed themselves
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_employee_outbox_sequence", columnNames = "feed_sequence"))
+public class EmployeeOutboxEvent {
+
+    public enum Type { SAVED, DELETED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_outbox_seq")
+    @SequenceGenerator(name = "employee_outbox_seq", sequenceName = "employee_outbox_seq", allocationSize = 50)
+    private long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private long employeeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    // the employee as json for SAVED, null for DELETED
+    @Column(length = 2048)
+    private String payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    // null until the relay has published the event
+    @Column(name = "feed_sequence")
+    private Long sequence;
+
+    @Column(name = "published_at")
+    private Instant publishedAt;
+}
@@ -0,0 +1,27 @@
+package com.example.springboottestingcourse.repository;
+
+import com.example.springboottestingcourse.model.EmployeeOutboxCursor;
+import com.example.springboottestingcourse.model.EmployeeOutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface EmployeeOutboxRepository extends JpaRepository<EmployeeOutboxEvent, Long> {
+
+    @Query("select e from EmployeeOutboxEvent e where e.sequence is null order by e.id")
+    List<EmployeeOutboxEvent> findUnpublished(Limit limit);
+
+    @Query("select e from EmployeeOutboxEvent e where e.sequence > :afterSequence order by e.sequence")
+    List<EmployeeOutboxEvent> findPublishedAfter(@Param("afterSequence") long afterSequence, Limit limit);
+
+    // select ... for update, a second relay waits here until the first one commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from EmployeeOutboxCursor c where c.id = " + EmployeeOutboxCursor.ID)
+    Optional<EmployeeOutboxCursor> lockCursor();
+}
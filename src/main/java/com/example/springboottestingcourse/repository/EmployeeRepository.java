@@ -1,29 +1,172 @@
 package com.example.springboottestingcourse.repository;
 
+import com.example.springboottestingcourse.dto.EmployeeName;
+import com.example.springboottestingcourse.dto.EmployeeVersion;
+import com.example.springboottestingcourse.dto.EmployeeView;
+import com.example.springboottestingcourse.dto.EmployeesVersion;
 import com.example.springboottestingcourse.model.Employee;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
 
+    // number of rows the driver pulls per round trip while streaming
+    int STREAM_FETCH_SIZE = 500;
+
+    // upper bound on the rows returned by a first/last name lookup, names are not unique
+    int MAX_NAME_MATCHES = 100;
+
+    /*
+        finders below are cached in the query cache, a result is dropped as soon as the employees table is written to.
+        native queries name their table through the native spaces hint, hibernate can not tell it from the sql
+     */
+    String QUERY_CACHE_REGION = "employee-queries";
+
+    /*
+        query space of the native writes whose rows the service evicts from the second-level cache one by one.
+        naming the employees table instead would make hibernate drop the whole employee region for every statement
+     */
+    String ROW_EVICTED_SPACE = "employees-row-evicted";
+
+    /*
+        constructor expression of the read model, hibernate builds the records straight from the result set
+        so no entity is hydrated, registered in the persistence context or snapshotted for dirty checking
+     */
+    String SELECT_VIEW = "select new com.example.springboottestingcourse.dto.EmployeeView(e.id, e.firstname, e.lastname,"
+            + " e.email, e.version, e.updatedAt) from Employee e";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     Optional<Employee> findByEmail(String email);
 
+    // returns which of the given emails are already taken, in a single IN query. native so that soft deleted rows,
+    // which still hold their email in the unique index until they are purged, count as taken
+    @Query(value = "select e.email from employees e where e.email in (:emails)", nativeQuery = true)
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     // custom query defined using JPQL with index params
-    @Query("select e from Employee e where e.firstname = ?1 and e.lastname = ?2")
-    Employee findByJPQL(String firstName, String lastName);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @Query("select e from Employee e where e.firstname = ?1 and e.lastname = ?2 order by e.id limit " + MAX_NAME_MATCHES)
+    List<Employee> findByJPQL(String firstName, String lastName);
 
     // custom query defined using JPQL with named params
-    @Query("select e from Employee e where e.firstname =:firstname and e.lastname =:lastname")
-    Employee findByJPQLNamedParams(@Param("firstname") String firstName,@Param("lastname") String lastName);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @Query("select e from Employee e where e.firstname =:firstname and e.lastname =:lastname order by e.id limit " + MAX_NAME_MATCHES)
+    List<Employee> findByJPQLNamedParams(@Param("firstname") String firstName,@Param("lastname") String lastName);
 
     // custom query using native SQL with index params
-    @Query(value = "select * from employees e where e.first_name =?1 and e.last_name =?2", nativeQuery = true)
-    Employee findByNativeSQLWithIndexPrams(String firstname, String lastname);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")
+    })
+    @Query(value = "select * from employees e where e.first_name =?1 and e.last_name =?2 and e.deleted_at is null order by e.id limit " + MAX_NAME_MATCHES, nativeQuery = true)
+    List<Employee> findByNativeSQLWithIndexPrams(String firstname, String lastname);
 
     // custom query using native SQL with named params
-    @Query(value = "select * from employees e where e.first_name =:firstname and e.last_name =:lastname", nativeQuery = true)
-    Employee findByNativeSQLWithNamedPrams(@Param("firstname") String firstname, @Param("lastname") String lastname);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")
+    })
+    @Query(value = "select * from employees e where e.first_name =:firstname and e.last_name =:lastname and e.deleted_at is null order by e.id limit " + MAX_NAME_MATCHES, nativeQuery = true)
+    List<Employee> findByNativeSQLWithNamedPrams(@Param("firstname") String firstname, @Param("lastname") String lastname);
+
+    // covering query, id, first_name and last_name are all held by idx_employees_first_last so no table row is read
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @Query("select new com.example.springboottestingcourse.dto.EmployeeName(e.id, e.firstname, e.lastname) from Employee e"
+            + " where e.firstname =:firstname and e.lastname =:lastname order by e.id limit " + MAX_NAME_MATCHES)
+    List<EmployeeName> findNamesByName(@Param("firstname") String firstname, @Param("lastname") String lastname);
+
+    // overwrites the editable columns in one statement without loading the entity, returns the number of updated rows.
+    // bulk writes bypass @Version and @UpdateTimestamp so both are maintained by the statement itself
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROW_EVICTED_SPACE))
+    @Query(value = "update employees set first_name = :firstname, last_name = :lastname, email = :email,"
+            + " version = version + 1, updated_at = :updatedAt where id = :id and deleted_at is null", nativeQuery = true)
+    int updateById(@Param("id") long id, @Param("firstname") String firstname, @Param("lastname") String lastname,
+                   @Param("email") String email, @Param("updatedAt") Instant updatedAt);
+
+    // flags the rows in one statement, the service evicts them from the second-level cache itself
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ROW_EVICTED_SPACE))
+    @Query(value = "update employees set deleted_at = :deletedAt, version = version + 1"
+            + " where id in (:ids) and deleted_at is null", nativeQuery = true)
+    int softDeleteByIds(@Param("ids") Collection<Long> ids, @Param("deletedAt") Instant deletedAt);
+
+    // the rows flagged by one soft delete, told apart from the ones deleted earlier by its timestamp
+    @Query(value = "select e.id from employees e where e.id in (:ids) and e.deleted_at = :deletedAt order by e.id",
+            nativeQuery = true)
+    List<Long> findIdsDeletedAt(@Param("ids") Collection<Long> ids, @Param("deletedAt") Instant deletedAt);
+
+    // native, the flagged rows are invisible to jpql
+    @Query(value = "select e.id from employees e where e.deleted_at is not null order by e.id limit :limit", nativeQuery = true)
+    List<Long> findDeletedIds(@Param("limit") int limit);
+
+    // the native spaces hint limits the cache invalidation to the employees table, without it hibernate drops every region
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees"))
+    @Query(value = "delete from employees where id in (:ids) and deleted_at is not null", nativeQuery = true)
+    int purgeByIds(@Param("ids") Collection<Long> ids);
+
+    // reads only the validators of one row, enough to answer If-None-Match / If-Modified-Since
+    @Query("select new com.example.springboottestingcourse.dto.EmployeeVersion(e.version, e.updatedAt) from Employee e where e.id = :id")
+    Optional<EmployeeVersion> findVersionById(@Param("id") long id);
+
+    @Query("select new com.example.springboottestingcourse.dto.EmployeesVersion(count(e), coalesce(max(e.id), 0),"
+            + " coalesce(sum(e.version), 0), max(e.updatedAt)) from Employee e")
+    EmployeesVersion findCollectionVersion();
+
+    @Query(SELECT_VIEW + " order by e.id")
+    List<EmployeeView> findAllViews();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    @Query(SELECT_VIEW + " where e.firstname = :firstname and e.lastname = :lastname order by e.id limit " + MAX_NAME_MATCHES)
+    List<EmployeeView> findViewsByName(@Param("firstname") String firstname, @Param("lastname") String lastname);
+
+    @Query(SELECT_VIEW + " where e.id > :afterId order by e.id")
+    List<EmployeeView> findViewPageAfter(@Param("afterId") long afterId, Limit limit);
+
+    // keyset pagination, seeks past the last id of the previous page through the primary key instead of using an offset
+    @Query("select e from Employee e where e.id > :afterId order by e.id")
+    List<Employee> findPageAfter(@Param("afterId") long afterId, Limit limit);
+
+    // streams the whole table through a forward only cursor, has to be consumed inside a transaction.
+    // neither reads nor fills the second-level cache, an export would otherwise push every hot entry out of it
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, value = "BYPASS"),
+            @QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS")
+    })
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAll();
 }
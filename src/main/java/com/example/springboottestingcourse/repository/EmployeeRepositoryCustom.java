@@ -0,0 +1,19 @@
+package com.example.springboottestingcourse.repository;
+
+import com.example.springboottestingcourse.model.Employee;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// queries whose shape is only known at runtime, implemented with the criteria api in EmployeeRepositoryCustomImpl
+public interface EmployeeRepositoryCustom {
+
+    // attributes a client may select, findFields itself trusts its callers to pass only these
+    Set<String> SELECTABLE_FIELDS = Set.of("id", "firstname", "lastname", "email", "version", "updatedAt");
+
+    // only the given attributes of the employees matching where, in id order, one map per row keyed by attribute name
+    List<Map<String, Object>> findFields(List<String> fields, Specification<Employee> where, Limit limit);
+}
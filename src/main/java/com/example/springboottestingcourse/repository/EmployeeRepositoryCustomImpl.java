@@ -0,0 +1,53 @@
+package com.example.springboottestingcourse.repository;
+
+import com.example.springboottestingcourse.model.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@AllArgsConstructor
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    EntityManager entityManager;
+
+    // the select list is built from the requested fields, so the database only reads and sends those columns
+    @Override
+    public List<Map<String, Object>> findFields(List<String> fields, Specification<Employee> where, Limit limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Employee> root = query.from(Employee.class);
+        List<Selection<?>> selections = fields.stream().distinct()
+                .<Selection<?>>map(field -> root.get(field).alias(field)).toList();
+        query.multiselect(selections);
+        Predicate predicate = where == null ? null : where.toPredicate(root, query, builder);
+        if (predicate != null)
+            query.where(predicate);
+        query.orderBy(builder.asc(root.get("id")));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (limit.isLimited())
+            typedQuery.setMaxResults(limit.max());
+
+        return typedQuery.getResultList().stream().map(EmployeeRepositoryCustomImpl::toMap).toList();
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (TupleElement<?> element : tuple.getElements())
+            row.put(element.getAlias(), tuple.get(element));
+        return row;
+    }
+}
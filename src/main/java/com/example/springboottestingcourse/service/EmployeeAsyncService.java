@@ -0,0 +1,17 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.dto.EmployeePage;
+import com.example.springboottestingcourse.dto.EmployeeView;
+import com.example.springboottestingcourse.model.Employee;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface EmployeeAsyncService {
+    CompletableFuture<Employee> saveEmployee(Employee employee);
+    CompletableFuture<List<EmployeeView>> getAllEmployees();
+    CompletableFuture<EmployeePage<EmployeeView>> getEmployeesPage(long afterId, int limit);
+    CompletableFuture<Optional<Employee>> getEmployeeById(Long id);
+    CompletableFuture<List<EmployeeView>> findEmployeesByName(String firstname, String lastname);
+}
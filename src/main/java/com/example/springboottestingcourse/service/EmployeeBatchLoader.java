@@ -0,0 +1,122 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.config.EmployeeBatchLoaderProperties;
+import com.example.springboottestingcourse.config.ReplicaRoutingDataSource;
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.repository.EmployeeRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*
+    collects the by-id lookups of concurrent requests for a short window and loads them with one IN query
+    instead of one select each. a lookup of an id that is already waiting or loading shares that lookup.
+    a window that ends with a single id uses findById, which the second-level cache can answer without a query.
+    the loads fill the employee cache and the second-level cache, which keep a row far longer than a replica lags
+    behind, so they read the primary. a row loaded from a lagging replica would be served stale until its next write
+ */
+@Component
+public class EmployeeBatchLoader implements DisposableBean {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeBatchLoaderProperties properties;
+
+    private final ConcurrentMap<Long, CompletableFuture<Optional<Employee>>> inFlight = new ConcurrentHashMap<>();
+
+    // runs the end of the windows, the batches that fill up early are loaded by the caller that filled them
+    private final ThreadPoolTaskScheduler scheduler;
+
+    private final Object lock = new Object();
+
+    private List<Long> batch = new ArrayList<>();
+
+    public EmployeeBatchLoader(EmployeeRepository employeeRepository, EmployeeBatchLoaderProperties properties) {
+        this.employeeRepository = employeeRepository;
+        this.properties = properties;
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(properties.threads());
+        scheduler.setThreadNamePrefix("employee-loader-");
+        scheduler.initialize();
+    }
+
+    public Optional<Employee> findById(Long id) {
+        try {
+            return load(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Optional<Employee>> load(Long id) {
+        if (!properties.enabled())
+            return CompletableFuture.completedFuture(ReplicaRoutingDataSource.onPrimary(() -> employeeRepository.findById(id)));
+
+        CompletableFuture<Optional<Employee>> loading = new CompletableFuture<>();
+        CompletableFuture<Optional<Employee>> existing = inFlight.putIfAbsent(id, loading);
+        if (existing != null)
+            return existing;
+
+        List<Long> full = null;
+        List<Long> opened = null;
+        synchronized (lock) {
+            batch.add(id);
+            if (batch.size() >= properties.maxBatchSize()) {
+                full = batch;
+                batch = new ArrayList<>();
+            } else if (batch.size() == 1) {
+                opened = batch;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        } else if (opened != null) {
+            List<Long> window = opened;
+            scheduler.schedule(() -> dispatchIfCurrent(window), Instant.now().plus(properties.window()));
+        }
+        return loading;
+    }
+
+    // the window may have been loaded already because it filled up
+    private void dispatchIfCurrent(List<Long> window) {
+        synchronized (lock) {
+            if (batch != window)
+                return;
+            batch = new ArrayList<>();
+        }
+        dispatch(window);
+    }
+
+    private void dispatch(List<Long> ids) {
+        Map<Long, Employee> found = new HashMap<>();
+        try {
+            List<Employee> loaded = ReplicaRoutingDataSource.onPrimary(() -> ids.size() == 1
+                    ? employeeRepository.findById(ids.getFirst()).stream().toList()
+                    : employeeRepository.findAllById(ids));
+            loaded.forEach(employee -> found.put(employee.getId(), employee));
+        } catch (RuntimeException e) {
+            ids.forEach(id -> inFlight.remove(id).completeExceptionally(e));
+            return;
+        }
+        // removed before completing, a lookup arriving afterwards starts a new one and sees later writes
+        ids.forEach(id -> inFlight.remove(id).complete(Optional.ofNullable(found.get(id))));
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.config.EmployeeStreamProperties;
+import com.example.springboottestingcourse.model.Employee;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/*
+    fans committed employee changes out to the server-sent event subscribers, every subscriber gets the change
+    from memory instead of polling the database for it.
+    the committing thread only queues the change per subscriber, the sends happen on a small sender pool. a
+    subscriber's queue holds at most one change per employee, a newer change replaces the one not yet sent, so
+    a client that falls behind gets the latest state rather than every step. a subscriber with more than
+    bufferSize employees waiting is dropped, the client reconnects and reloads instead of slowing the others down.
+    a send that has not returned after sendTimeout, a client that stopped reading, closes the subscriber as well.
+    the emitter's send and complete are synchronized, a write stuck on the socket holds its lock until the
+    container's write timeout. so the drain hands every send to a writer thread and only waits sendTimeout for
+    it, on timeout the sender walks away and the stuck writer is left to finish or fail on its own
+ */
+@Slf4j
+@Component
+public class EmployeeChangeBroadcaster implements DisposableBean {
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final EmployeeStreamProperties properties;
+
+    private final ThreadPoolTaskExecutor senders;
+
+    /*
+        runs the blocking emitter writes and the completes behind a stuck one. unbounded, but a subscriber has at most
+        one write in flight and is closed once it times out, so there are at most two threads per stalled subscriber.
+        platform threads, a virtual thread blocked on the emitter's monitor would pin its carrier
+     */
+    private final ThreadPoolTaskExecutor writers;
+
+    public EmployeeChangeBroadcaster(EmployeeStreamProperties properties) {
+        this.properties = properties;
+        senders = new ThreadPoolTaskExecutor();
+        senders.setCorePoolSize(properties.senderThreads());
+        senders.setMaxPoolSize(properties.senderThreads());
+        // a subscriber has at most one drain queued, so the queue never holds more than one task per subscriber
+        senders.setThreadNamePrefix("employee-stream-");
+        senders.initialize();
+        writers = new ThreadPoolTaskExecutor();
+        writers.setCorePoolSize(0);
+        writers.setQueueCapacity(0);
+        writers.setThreadNamePrefix("employee-stream-writer-");
+        writers.initialize();
+    }
+
+    // empty when the subscriber limit is reached
+    public Optional<SseEmitter> subscribe() {
+        SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+        return register(emitter) ? Optional.of(emitter) : Optional.empty();
+    }
+
+    boolean register(SseEmitter emitter) {
+        // checked without a lock, concurrent subscribes may overshoot the limit by a few
+        if (subscribers.size() >= properties.maxSubscribers())
+            return false;
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::closed);
+        emitter.onTimeout(subscriber::closed);
+        emitter.onError(e -> subscriber.closed());
+        subscribers.add(subscriber);
+        return true;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // runs after the write commits, or straight away when it was not part of a transaction, rolled back writes never get here
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (subscribers.isEmpty())
+            return;
+        List<Change> changes = new ArrayList<>(event.saved().size() + event.deletedIds().size());
+        event.saved().forEach(employee -> changes.add(new Change(employee.getId(), employee)));
+        event.deletedIds().forEach(id -> changes.add(new Change(id, null)));
+        for (Subscriber subscriber : subscribers)
+            subscriber.offer(changes);
+    }
+
+    // keeps proxies from closing idle streams and finds clients that went away without a word
+    @Scheduled(fixedDelayString = "${employee.stream.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdown();
+        writers.shutdown();
+    }
+
+    // employee is null for a delete
+    private record Change(long id, Employee employee) {
+
+        SseEmitter.SseEventBuilder toEvent() {
+            return employee == null
+                    ? SseEmitter.event().name("deleted").data(Map.of("id", id), MediaType.APPLICATION_JSON)
+                    : SseEmitter.event().name("saved").data(employee, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    /*
+        the emitter is only written by the drain task, at most one of which is queued or running per subscriber and
+        which waits for each write before the next, so a send blocked on a slow socket never holds up the committing thread
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final LinkedHashMap<Long, Change> pending = new LinkedHashMap<>();
+
+        private boolean heartbeatDue;
+
+        private boolean draining;
+
+        private boolean dropped;
+
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(List<Change> changes) {
+            synchronized (this) {
+                if (closed || dropped)
+                    return;
+                changes.forEach(change -> pending.put(change.id(), change));
+                if (pending.size() > properties.bufferSize()) {
+                    log.info("Dropping employee stream subscriber with {} employees waiting", pending.size());
+                    pending.clear();
+                    dropped = true;
+                    subscribers.remove(this);
+                }
+                if (draining)
+                    return;
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                if (closed || dropped || draining)
+                    return;
+                heartbeatDue = true;
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        void closed() {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            subscribers.remove(this);
+        }
+
+        private void drain() {
+            while (true) {
+                List<Change> batch;
+                boolean sendHeartbeat;
+                synchronized (this) {
+                    if (dropped && !closed) {
+                        closed = true;
+                        draining = false;
+                        break;
+                    }
+                    if (closed || (pending.isEmpty() && !heartbeatDue)) {
+                        draining = false;
+                        return;
+                    }
+                    batch = List.copyOf(pending.values());
+                    pending.clear();
+                    sendHeartbeat = heartbeatDue;
+                    heartbeatDue = false;
+                }
+                try {
+                    if (sendHeartbeat)
+                        send(SseEmitter.event().comment("heartbeat"));
+                    for (Change change : batch)
+                        send(change.toEvent());
+                } catch (IOException | IllegalStateException e) {
+                    // the client went away, the container completes the emitter
+                    closed();
+                } catch (TimeoutException e) {
+                    log.info("Dropping employee stream subscriber whose send took longer than {}", properties.sendTimeout());
+                    closed();
+                    // complete waits for the stuck write's lock, on a writer thread so the sender is free for the others
+                    writers.execute(emitter::complete);
+                }
+            }
+            // dropped as too slow, the client sees the stream end and reconnects
+            emitter.complete();
+        }
+
+        // a timed out write is not cancelled, interrupting it would not free the socket, it ends with the write timeout
+        private void send(SseEmitter.SseEventBuilder event) throws IOException, TimeoutException {
+            Future<?> write = writers.submit(() -> {
+                emitter.send(event);
+                return null;
+            });
+            try {
+                write.get(properties.sendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException ioException)
+                    throw ioException;
+                if (e.getCause() instanceof RuntimeException runtimeException)
+                    throw runtimeException;
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                // the senders are shutting down
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while sending to an employee stream subscriber");
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.dto.EmployeeChange;
+
+import java.util.List;
+
+/*
+    where the outbox relay delivers published changes, e.g. a message broker. a sink that throws rolls the batch back
+    and it is delivered again on the next run, so a sink has to tolerate seeing a batch more than once
+ */
+@FunctionalInterface
+public interface EmployeeChangeSink {
+    void publish(List<EmployeeChange> changes) throws Exception;
+}
@@ -0,0 +1,25 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.model.Employee;
+
+import java.util.List;
+
+// published by EmployeeServiceImpl for every write, saved holds the new state of the rows and deletedIds the removed ones
+public record EmployeeChangedEvent(List<Employee> saved, List<Long> deletedIds) {
+
+    public static EmployeeChangedEvent saved(List<Employee> employees) {
+        return new EmployeeChangedEvent(employees, List.of());
+    }
+
+    public static EmployeeChangedEvent saved(Employee employee) {
+        return saved(List.of(employee));
+    }
+
+    public static EmployeeChangedEvent deleted(Long id) {
+        return new EmployeeChangedEvent(List.of(), List.of(id));
+    }
+
+    public static EmployeeChangedEvent deleted(List<Long> ids) {
+        return new EmployeeChangedEvent(List.of(), ids);
+    }
+}
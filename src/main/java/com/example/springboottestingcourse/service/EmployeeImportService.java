@@ -0,0 +1,20 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.dto.EmployeeImportReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface EmployeeImportService {
+
+    // rows handed to EmployeeService.saveEmployees at once, every chunk is its own transaction
+    int IMPORT_CHUNK_SIZE = 1000;
+
+    int MAX_REPORTED_ERRORS = 1000;
+
+    enum Format {
+        CSV, NDJSON
+    }
+
+    EmployeeImportReport importEmployees(InputStream input, Format format) throws IOException;
+}
@@ -0,0 +1,34 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.config.EmployeeOutboxProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// publishes the outbox batch by batch, every batch in a transaction of its own, until a batch comes back short
+@Slf4j
+@Component
+public class EmployeeOutboxRelay {
+
+    private final EmployeeOutboxService outboxService;
+
+    private final EmployeeOutboxProperties properties;
+
+    public EmployeeOutboxRelay(EmployeeOutboxService outboxService, EmployeeOutboxProperties properties) {
+        this.outboxService = outboxService;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.outbox.relay-interval:PT1S}")
+    public int relay() {
+        int published = 0;
+        int batch;
+        do {
+            batch = outboxService.relay(properties.batchSize());
+            published += batch;
+        } while (batch == properties.batchSize());
+        if (published > 0)
+            log.debug("Published {} employee changes", published);
+        return published;
+    }
+}
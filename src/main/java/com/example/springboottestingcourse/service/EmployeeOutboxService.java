@@ -0,0 +1,11 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.dto.EmployeeChange;
+
+import java.util.List;
+
+public interface EmployeeOutboxService {
+    void record(EmployeeChangedEvent event);
+    int relay(int batchSize);
+    List<EmployeeChange> getChanges(long afterSequence, int limit);
+}
@@ -0,0 +1,37 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.config.EmployeePurgeProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/*
+    hard deletes the employees a bulk delete only flagged. every batch is a transaction of its own, so the locks
+    of one batch are released and it is replicated before the next one starts
+ */
+@Slf4j
+@Component
+public class EmployeePurgeJob {
+
+    private final EmployeeService employeeService;
+
+    private final EmployeePurgeProperties properties;
+
+    public EmployeePurgeJob(EmployeeService employeeService, EmployeePurgeProperties properties) {
+        this.employeeService = employeeService;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${employee.purge.interval:PT10S}", initialDelayString = "${employee.purge.interval:PT10S}")
+    public int purge() {
+        int purged = 0;
+        int batch;
+        do {
+            batch = employeeService.purgeDeletedEmployees(properties.batchSize());
+            purged += batch;
+        } while (batch == properties.batchSize());
+        if (purged > 0)
+            log.info("Purged {} deleted employees", purged);
+        return purged;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.dto.EmployeeSuggestion;
+import com.example.springboottestingcourse.model.Employee;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/*
+    in-process prefix index over first name, last name, full name and email for typeahead.
+    every indexed term is stored as "term\0id" in a sorted set, so a prefix lookup is a range scan of the set
+    and terms shared by many employees need no per term collection that writers would have to coordinate on
+ */
+@Slf4j
+@Component
+public class EmployeeSearchIndex implements SmartInitializingSingleton {
+
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final ConcurrentMap<Long, EmployeeSuggestion> documents = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListSet<String> terms = new ConcurrentSkipListSet<>();
+
+    private final EmployeeService employeeService;
+
+    public EmployeeSearchIndex(EmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    // loaded once every bean exists, which is before the web server starts taking requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        employeeService.streamAllEmployees(this::put);
+        log.info("Employee search index loaded {} employees in {} ms", documents.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // runs after the write commits, or straight away when it was not part of a transaction, rolled back writes never get here
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        event.saved().forEach(this::put);
+        event.deletedIds().forEach(this::remove);
+    }
+
+    public List<EmployeeSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty())
+            return List.of();
+
+        int max = Math.clamp(limit, 1, MAX_SUGGESTIONS);
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String term : terms.subSet(normalized, normalized + Character.MAX_VALUE)) {
+            ids.add(Long.parseLong(term.substring(term.lastIndexOf(SEPARATOR) + 1)));
+            if (ids.size() == max)
+                break;
+        }
+        // an employee deleted during the scan has no document anymore
+        return ids.stream().map(documents::get).filter(Objects::nonNull).toList();
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private void put(Employee employee) {
+        EmployeeSuggestion document = new EmployeeSuggestion(employee.getId(), employee.getFirstname(),
+                employee.getLastname(), employee.getEmail());
+        // compute serializes writers of the same employee, so the terms always match the stored document
+        documents.compute(document.id(), (id, previous) -> {
+            if (previous != null)
+                termsOf(previous).forEach(terms::remove);
+            termsOf(document).forEach(terms::add);
+            return document;
+        });
+    }
+
+    private void remove(Long id) {
+        documents.computeIfPresent(id, (key, previous) -> {
+            termsOf(previous).forEach(terms::remove);
+            return null;
+        });
+    }
+
+    private static Stream<String> termsOf(EmployeeSuggestion document) {
+        String suffix = SEPARATOR + Long.toString(document.id());
+        return Stream.of(document.firstname(), document.lastname(),
+                        document.firstname() + " " + document.lastname(), document.email())
+                .filter(Objects::nonNull)
+                .map(EmployeeSearchIndex::normalize)
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .map(term -> term + suffix);
+    }
+
+    private static String normalize(String value) {
+        return value.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,14 +1,40 @@
 package com.example.springboottestingcourse.service;
 
+import com.example.springboottestingcourse.dto.EmployeeBatchResult;
+import com.example.springboottestingcourse.dto.EmployeeName;
+import com.example.springboottestingcourse.dto.EmployeePage;
+import com.example.springboottestingcourse.dto.EmployeeVersion;
+import com.example.springboottestingcourse.dto.EmployeeView;
+import com.example.springboottestingcourse.dto.EmployeesVersion;
 import com.example.springboottestingcourse.model.Employee;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee saveEmployee(Employee employee);
-    List<Employee> getAllEmployees();
+    List<EmployeeBatchResult> saveEmployees(List<Employee> employees);
+    List<EmployeeView> getAllEmployees();
+    EmployeesVersion getEmployeesVersion();
+    EmployeePage<EmployeeView> getEmployeesPage(long afterId, int limit);
+    EmployeePage<Map<String, Object>> getEmployeeFieldsPage(List<String> fields, long afterId, int limit);
+    Optional<Map<String, Object>> getEmployeeFieldsById(List<String> fields, Long id);
+    List<Map<String, Object>> findEmployeeFieldsByName(List<String> fields, String firstname, String lastname);
+    void streamAllEmployees(Consumer<Employee> consumer);
     Optional<Employee> getEmployeeById(Long id);
+    Optional<EmployeeVersion> getEmployeeVersion(Long id);
+    List<EmployeeView> findEmployeesByName(String firstname, String lastname);
+    List<EmployeeName> findEmployeeNamesByName(String firstname, String lastname);
     Optional<Employee> updateEmployee(Long id, Employee employee);
+    Employee updateEmployee(Long id, Employee employee, long expectedVersion);
+    List<Employee> updateEmployees(Map<Long, Employee> employees);
+    Optional<Employee> patchEmployee(Long id, Map<String, Object> patch);
+    Employee patchEmployee(Long id, Map<String, Object> patch, long expectedVersion);
     void deleteEmployee(Long id);
+    void deleteEmployee(Long id, long expectedVersion);
+    int deleteEmployees(List<Long> ids);
+    int deleteEmployeesByName(String firstname, String lastname, int limit);
+    int purgeDeletedEmployees(int batchSize);
 }
@@ -0,0 +1,254 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.config.EmployeeWriteBehindProperties;
+import com.example.springboottestingcourse.model.Employee;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+    coalesces bursts of full updates to the same employee. an update waiting in the buffer is replaced by a newer one
+    for the same id, a flush writes what is left with EmployeeService.updateEmployees in batches of batchSize.
+    the buffer is split into stripes by id so writers of different employees rarely meet on a lock, flushes run one
+    at a time so an older update can never be committed after a newer one.
+    the buffer only takes updates while running, it starts before the web server and stops after it, flushing
+    whatever is left before the database connections close.
+    every flush runs on the flusher thread, the scheduled one included, so a slow write never holds up the
+    single scheduler thread the outbox relay, the purge and the stream heartbeats share
+ */
+@Slf4j
+@Component
+public class EmployeeWriteBehindBuffer implements SmartLifecycle {
+
+    // lower phases stop later, this one after the web server has finished its requests
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 4096;
+
+    private final EmployeeService employeeService;
+
+    private final EmployeeWriteBehindProperties properties;
+
+    private final Stripe[] stripes;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    // runs the flushes started by a full batch or by the flush interval
+    private final ThreadPoolTaskExecutor flusher;
+
+    private volatile boolean running;
+
+    public EmployeeWriteBehindBuffer(EmployeeService employeeService, EmployeeWriteBehindProperties properties) {
+        this.employeeService = employeeService;
+        this.properties = properties;
+        stripes = new Stripe[properties.stripes()];
+        for (int i = 0; i < stripes.length; i++)
+            stripes[i] = new Stripe();
+        flusher = new ThreadPoolTaskExecutor();
+        flusher.setCorePoolSize(1);
+        flusher.setMaxPoolSize(1);
+        flusher.setThreadNamePrefix("employee-write-behind-");
+        flusher.initialize();
+    }
+
+    // false when write-behind is off or the application is shutting down, updates then go straight to the service
+    public boolean isEnabled() {
+        return running;
+    }
+
+    public EmployeeWriteBehindProperties.Durability durability() {
+        return properties.durability();
+    }
+
+    public void submit(Long id, Employee employee) {
+        enqueue(id, employee, null);
+    }
+
+    /*
+        the updated employee once the flush holding the update has committed, empty when there is no such employee.
+        TimeoutException when that takes longer than flushTimeout, the update stays buffered and is written later
+     */
+    public Optional<Employee> submitAndWait(Long id, Employee employee) throws TimeoutException {
+        CompletableFuture<Optional<Employee>> flushed = new CompletableFuture<>();
+        enqueue(id, employee, flushed);
+        try {
+            return flushed.orTimeout(properties.flushTimeout().toMillis(), TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            if (e.getCause() instanceof TimeoutException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    public int pendingCount() {
+        return pending.get();
+    }
+
+    private void enqueue(Long id, Employee employee, CompletableFuture<Optional<Employee>> waiter) {
+        Stripe stripe = stripeOf(id);
+        boolean added;
+        synchronized (stripe) {
+            Pending update = stripe.updates.get(id);
+            added = update == null;
+            if (added) {
+                update = new Pending();
+                stripe.updates.put(id, update);
+            }
+            update.employee = employee;
+            if (waiter != null)
+                update.waiters.add(waiter);
+        }
+        int waiting = added ? pending.incrementAndGet() : pending.get();
+        // read after the update is in, either stop() still flushes it or this writer does
+        if (!running || waiting >= properties.maxPending())
+            flush();
+        else if (waiting >= properties.batchSize())
+            requestFlush();
+    }
+
+    private void requestFlush() {
+        if (!flushRequested.compareAndSet(false, true))
+            return;
+        try {
+            flusher.execute(this::flush);
+        } catch (TaskRejectedException e) {
+            flush();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${employee.write-behind.flush-interval:PT0.2S}")
+    public void scheduledFlush() {
+        if (pending.get() > 0)
+            requestFlush();
+    }
+
+    public int flush() {
+        flushRequested.set(false);
+        if (pending.get() == 0)
+            return 0;
+
+        flushLock.lock();
+        try {
+            Map<Long, Pending> drained = new LinkedHashMap<>();
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    drained.putAll(stripe.updates);
+                    stripe.updates.clear();
+                }
+            }
+            pending.addAndGet(-drained.size());
+            List<Long> ids = new ArrayList<>(drained.keySet());
+            for (int from = 0; from < ids.size(); from += properties.batchSize()) {
+                Map<Long, Pending> batch = new LinkedHashMap<>();
+                for (Long id : ids.subList(from, Math.min(from + properties.batchSize(), ids.size())))
+                    batch.put(id, drained.get(id));
+                write(batch);
+            }
+            return drained.size();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // writes the update waiting for this employee, if any, so a write that does not go through the buffer comes after it
+    public void flush(Long id) {
+        if (pending.get() == 0)
+            return;
+
+        flushLock.lock();
+        try {
+            Stripe stripe = stripeOf(id);
+            Pending update;
+            synchronized (stripe) {
+                update = stripe.updates.remove(id);
+            }
+            if (update != null) {
+                pending.decrementAndGet();
+                write(Map.of(id, update));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(Map<Long, Pending> batch) {
+        Map<Long, Employee> employees = new LinkedHashMap<>();
+        batch.forEach((id, update) -> employees.put(id, update.employee));
+        try {
+            Map<Long, Employee> updated = new LinkedHashMap<>();
+            employeeService.updateEmployees(employees).forEach(employee -> updated.put(employee.getId(), employee));
+            batch.forEach((id, update) -> update.waiters.forEach(waiter ->
+                    waiter.complete(Optional.ofNullable(updated.get(id)))));
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                // one bad update, e.g. an email that is taken, fails the whole batch. written one by one only it is lost
+                batch.forEach((id, update) -> write(Map.of(id, update)));
+                return;
+            }
+            batch.forEach((id, update) -> {
+                log.warn("Dropped the buffered update of employee {}", id, e);
+                update.waiters.forEach(waiter -> waiter.completeExceptionally(e));
+            });
+        }
+    }
+
+    private Stripe stripeOf(Long id) {
+        return stripes[Math.floorMod(id.hashCode(), stripes.length)];
+    }
+
+    @Override
+    public void start() {
+        running = properties.enabled();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        int flushed = flush();
+        flusher.shutdown();
+        if (flushed > 0)
+            log.info("Flushed {} buffered employee updates on shutdown", flushed);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private static final class Stripe {
+        final LinkedHashMap<Long, Pending> updates = new LinkedHashMap<>();
+    }
+
+    private static final class Pending {
+
+        Employee employee;
+
+        final List<CompletableFuture<Optional<Employee>>> waiters = new ArrayList<>(1);
+    }
+}
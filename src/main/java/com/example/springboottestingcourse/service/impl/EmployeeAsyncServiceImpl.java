@@ -0,0 +1,97 @@
+package com.example.springboottestingcourse.service.impl;
+
+import com.example.springboottestingcourse.config.EmployeeAsyncProperties;
+import com.example.springboottestingcourse.config.ReplicaRoutingDataSource;
+import com.example.springboottestingcourse.dto.EmployeePage;
+import com.example.springboottestingcourse.dto.EmployeeView;
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.service.EmployeeAsyncService;
+import com.example.springboottestingcourse.service.EmployeeService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+    runs the blocking service calls on a fixed size pool with a bounded queue, a bulkhead that keeps slow queries
+    from taking more than their share of connections and threads. a full queue fails the call with
+    TaskRejectedException at once, a call that outlasts the timeout fails with TimeoutException. the timeout
+    frees the waiting request, the query itself keeps its pool thread until the database answers
+ */
+@Service
+public class EmployeeAsyncServiceImpl implements EmployeeAsyncService, DisposableBean {
+
+    private final EmployeeService employeeService;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Duration timeout;
+
+    public EmployeeAsyncServiceImpl(EmployeeService employeeService, EmployeeAsyncProperties properties) {
+        this.employeeService = employeeService;
+        this.timeout = properties.timeout();
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.poolSize());
+        executor.setMaxPoolSize(properties.poolSize());
+        executor.setQueueCapacity(properties.queueCapacity());
+        executor.setThreadNamePrefix("employee-query-");
+        // a client pinned to the primary to read its own writes stays pinned on the pool thread
+        executor.setTaskDecorator(task -> {
+            boolean pinned = ReplicaRoutingDataSource.isPinnedToPrimary();
+            return () -> {
+                ReplicaRoutingDataSource.pinToPrimary(pinned);
+                try {
+                    task.run();
+                } finally {
+                    ReplicaRoutingDataSource.pinToPrimary(false);
+                }
+            };
+        });
+        executor.initialize();
+    }
+
+    @Override
+    public CompletableFuture<Employee> saveEmployee(Employee employee) {
+        return submit(() -> employeeService.saveEmployee(employee));
+    }
+
+    @Override
+    public CompletableFuture<List<EmployeeView>> getAllEmployees() {
+        return submit(employeeService::getAllEmployees);
+    }
+
+    @Override
+    public CompletableFuture<EmployeePage<EmployeeView>> getEmployeesPage(long afterId, int limit) {
+        return submit(() -> employeeService.getEmployeesPage(afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Employee>> getEmployeeById(Long id) {
+        return submit(() -> employeeService.getEmployeeById(id));
+    }
+
+    @Override
+    public CompletableFuture<List<EmployeeView>> findEmployeesByName(String firstname, String lastname) {
+        return submit(() -> employeeService.findEmployeesByName(firstname, lastname));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, executor).orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TaskRejectedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.springboottestingcourse.service.impl;
+
+import com.example.springboottestingcourse.dto.EmployeeBatchResult;
+import com.example.springboottestingcourse.dto.EmployeeImportReport;
+import com.example.springboottestingcourse.exception.BadRequestException;
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.service.EmployeeImportService;
+import com.example.springboottestingcourse.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    reads the upload line by line and hands it to EmployeeService.saveEmployees one chunk at a time, which
+    validates the rows, dedupes the emails against the table with IN queries and inserts in jdbc batches.
+    the next chunk is only read once the previous one is committed, so a client sending faster than the
+    database writes is held back by tcp flow control instead of filling the heap
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class EmployeeImportServiceImpl implements EmployeeImportService {
+
+    EmployeeService employeeService;
+
+    ObjectMapper objectMapper;
+
+    @Override
+    public EmployeeImportReport importEmployees(InputStream input, Format format) throws IOException {
+        Progress progress = new Progress();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        CsvHeader header = null;
+        if (format == Format.CSV) {
+            String headerLine = reader.readLine();
+            if (headerLine == null)
+                return progress.report();
+            header = CsvHeader.parse(headerLine);
+            progress.lineNumber++;
+        }
+
+        List<Employee> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        List<Integer> lineNumbers = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int lineNumber = ++progress.lineNumber;
+            if (line.isBlank())
+                continue;
+
+            progress.rows++;
+            try {
+                chunk.add(format == Format.CSV ? header.toEmployee(line) : parseJson(line));
+                lineNumbers.add(lineNumber);
+            } catch (BadRequestException e) {
+                progress.reject(EmployeeBatchResult.invalid(lineNumber, null, e.getMessage()));
+            }
+
+            if (chunk.size() == IMPORT_CHUNK_SIZE)
+                saveChunk(chunk, lineNumbers, progress);
+        }
+        if (!chunk.isEmpty())
+            saveChunk(chunk, lineNumbers, progress);
+
+        log.info("Employee import finished, {} rows, {} created, {} duplicates, {} invalid",
+                progress.rows, progress.created, progress.duplicates, progress.invalid);
+        return progress.report();
+    }
+
+    private void saveChunk(List<Employee> chunk, List<Integer> lineNumbers, Progress progress) {
+        try {
+            addResults(employeeService.saveEmployees(chunk), lineNumbers, progress);
+        } catch (DataIntegrityViolationException e) {
+            // e.g. an email taken by a concurrent create after the duplicate check, the chunk is rolled back as a
+            // whole. saved one by one only the offending rows are rejected
+            for (int i = 0; i < chunk.size(); i++)
+                saveRow(chunk.get(i), lineNumbers.get(i), progress);
+        }
+        chunk.clear();
+        lineNumbers.clear();
+        log.info("Employee import progress, {} rows read, {} created", progress.rows, progress.created);
+    }
+
+    private void saveRow(Employee employee, int lineNumber, Progress progress) {
+        try {
+            addResults(employeeService.saveEmployees(List.of(employee)), List.of(lineNumber), progress);
+        } catch (DataIntegrityViolationException e) {
+            progress.reject(EmployeeServiceImpl.isEmailConstraintViolation(e)
+                    ? EmployeeBatchResult.duplicate(lineNumber, employee.getEmail())
+                    : EmployeeBatchResult.invalid(lineNumber, employee.getEmail(), "Employee conflicts with existing data"));
+        }
+    }
+
+    private static void addResults(List<EmployeeBatchResult> results, List<Integer> lineNumbers, Progress progress) {
+        for (EmployeeBatchResult result : results) {
+            if (result.status() == EmployeeBatchResult.Status.CREATED) {
+                progress.created++;
+            } else {
+                // saveEmployees numbers the rows of its chunk, the report points at the line of the upload
+                progress.reject(new EmployeeBatchResult(lineNumbers.get(result.index()), result.email(),
+                        result.status(), null, result.message()));
+            }
+        }
+    }
+
+    private Employee parseJson(String line) {
+        try {
+            Employee employee = objectMapper.readValue(line, Employee.class);
+            if (employee == null)
+                throw new BadRequestException("Expected a json object but found null");
+            return employee;
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Malformed json: " + e.getOriginalMessage());
+        }
+    }
+
+    private static final class Progress {
+        int lineNumber;
+        long rows;
+        long created;
+        long duplicates;
+        long invalid;
+        final List<EmployeeBatchResult> errors = new ArrayList<>();
+        boolean errorsTruncated;
+
+        void reject(EmployeeBatchResult result) {
+            if (result.status() == EmployeeBatchResult.Status.DUPLICATE)
+                duplicates++;
+            else
+                invalid++;
+
+            if (errors.size() < MAX_REPORTED_ERRORS)
+                errors.add(result);
+            else
+                errorsTruncated = true;
+        }
+
+        EmployeeImportReport report() {
+            return new EmployeeImportReport(rows, created, duplicates, invalid, List.copyOf(errors), errorsTruncated);
+        }
+    }
+
+    // column positions taken from the header row, so the columns can come in any order and extra ones are ignored
+    private record CsvHeader(int columns, int firstname, int lastname, int email) {
+
+        static CsvHeader parse(String line) {
+            List<String> names = splitCsv(line).stream().map(String::toLowerCase).toList();
+            int firstname = names.indexOf("firstname");
+            int lastname = names.indexOf("lastname");
+            int email = names.indexOf("email");
+            if (firstname < 0 || lastname < 0 || email < 0)
+                throw new BadRequestException("CSV header must name the firstname, lastname and email columns");
+            return new CsvHeader(names.size(), firstname, lastname, email);
+        }
+
+        Employee toEmployee(String line) {
+            List<String> values = splitCsv(line);
+            if (values.size() != columns)
+                throw new BadRequestException("Expected " + columns + " columns but found " + values.size());
+            return Employee.builder().firstname(emptyToNull(values.get(firstname)))
+                    .lastname(emptyToNull(values.get(lastname))).email(emptyToNull(values.get(email))).build();
+        }
+
+        private static String emptyToNull(String value) {
+            return value.isEmpty() ? null : value;
+        }
+
+        // rfc 4180 fields on a single line, a quoted field may contain commas and "" for a quote
+        private static List<String> splitCsv(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        value.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString().trim());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            if (quoted)
+                throw new BadRequestException("Unterminated quoted field");
+            values.add(value.toString().trim());
+            return values;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.springboottestingcourse.service.impl;
+
+import com.example.springboottestingcourse.dto.EmployeeChange;
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.model.EmployeeOutboxCursor;
+import com.example.springboottestingcourse.model.EmployeeOutboxEvent;
+import com.example.springboottestingcourse.repository.EmployeeOutboxRepository;
+import com.example.springboottestingcourse.service.EmployeeChangeSink;
+import com.example.springboottestingcourse.service.EmployeeChangedEvent;
+import com.example.springboottestingcourse.service.EmployeeOutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@AllArgsConstructor
+public class EmployeeOutboxServiceImpl implements EmployeeOutboxService {
+
+    static final int MAX_FEED_PAGE_SIZE = 1000;
+
+    EmployeeOutboxRepository outboxRepository;
+
+    EntityManager entityManager;
+
+    EmployeeChangeSink sink;
+
+    ObjectMapper objectMapper;
+
+    // runs inside the writing transaction just before it commits, the change and its outbox rows commit or roll back together
+    @Override
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void record(EmployeeChangedEvent event) {
+        // a patch is only written by dirty checking, flushed first so the payload carries its new version and updatedAt
+        if (!event.saved().isEmpty())
+            entityManager.flush();
+        List<EmployeeOutboxEvent> events = new ArrayList<>(event.saved().size() + event.deletedIds().size());
+        for (Employee employee : event.saved()) {
+            events.add(EmployeeOutboxEvent.builder().employeeId(employee.getId())
+                    .type(EmployeeOutboxEvent.Type.SAVED).payload(toJson(employee)).build());
+        }
+        for (Long id : event.deletedIds()) {
+            events.add(EmployeeOutboxEvent.builder().employeeId(id).type(EmployeeOutboxEvent.Type.DELETED).build());
+        }
+        outboxRepository.saveAll(events);
+    }
+
+    private String toJson(Employee employee) {
+        try {
+            return objectMapper.writeValueAsString(employee);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Employee " + employee.getId() + " can not be written as json", e);
+        }
+    }
+
+    /*
+        numbers the oldest unpublished events after the last published one and hands them to the sink, all under the
+        cursor lock. the numbers are only taken once the events are visible here, so a consumer following the
+        sequence never passes a gap that a slow transaction fills in later
+     */
+    @Override
+    @Transactional
+    public int relay(int batchSize) {
+        EmployeeOutboxCursor cursor = outboxRepository.lockCursor().orElseGet(this::createCursor);
+        List<EmployeeOutboxEvent> events = outboxRepository.findUnpublished(Limit.of(batchSize));
+        if (events.isEmpty())
+            return 0;
+
+        long sequence = cursor.getLastSequence();
+        Instant publishedAt = Instant.now();
+        for (EmployeeOutboxEvent event : events) {
+            event.setSequence(++sequence);
+            event.setPublishedAt(publishedAt);
+        }
+        cursor.setLastSequence(sequence);
+        try {
+            sink.publish(events.stream().map(EmployeeChange::of).toList());
+        } catch (Exception e) {
+            throw new IllegalStateException("Employee change sink failed, the batch is retried on the next run", e);
+        }
+        return events.size();
+    }
+
+    // first run against an empty table, a relay racing to insert it as well fails on the primary key and retries next run
+    private EmployeeOutboxCursor createCursor() {
+        EmployeeOutboxCursor cursor = new EmployeeOutboxCursor(EmployeeOutboxCursor.ID, 0);
+        entityManager.persist(cursor);
+        entityManager.flush();
+        return cursor;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeChange> getChanges(long afterSequence, int limit) {
+        return outboxRepository.findPublishedAfter(afterSequence, Limit.of(Math.clamp(limit, 1, MAX_FEED_PAGE_SIZE)))
+                .stream().map(EmployeeChange::of).toList();
+    }
+}
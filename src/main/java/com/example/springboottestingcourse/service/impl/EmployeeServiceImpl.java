@@ -1,56 +1,504 @@
 package com.example.springboottestingcourse.service.impl;
 
+import com.example.springboottestingcourse.config.ReplicaRoutingDataSource;
+import com.example.springboottestingcourse.dto.EmployeeBatchResult;
+import com.example.springboottestingcourse.dto.EmployeeName;
+import com.example.springboottestingcourse.dto.EmployeePage;
+import com.example.springboottestingcourse.dto.EmployeeVersion;
+import com.example.springboottestingcourse.dto.EmployeeView;
+import com.example.springboottestingcourse.dto.EmployeesVersion;
+import com.example.springboottestingcourse.exception.BadRequestException;
 import com.example.springboottestingcourse.exception.ResourceNotFoundException;
 import com.example.springboottestingcourse.model.Employee;
 import com.example.springboottestingcourse.repository.EmployeeRepository;
+import com.example.springboottestingcourse.service.EmployeeBatchLoader;
+import com.example.springboottestingcourse.service.EmployeeChangedEvent;
 import com.example.springboottestingcourse.service.EmployeeService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.AllArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.example.springboottestingcourse.config.CacheConfig.EMPLOYEES_CACHE;
 
 @Service
 @AllArgsConstructor
 public class EmployeeServiceImpl implements EmployeeService {
 
+    static final int MAX_PAGE_SIZE = 1000;
+
+    // matches hibernate.jdbc.batch_size, the persistence context is flushed and cleared after every chunk
+    static final int INSERT_CHUNK_SIZE = 50;
+
+    // upper bound on the bind parameters of one IN query
+    static final int IN_LIST_CHUNK_SIZE = 1000;
+
     EmployeeRepository employeeRepository;
 
+    EntityManager entityManager;
+
+    // for the second-level cache entries of rows written by native statements
+    EntityManagerFactory entityManagerFactory;
+
+    // every write is announced as an EmployeeChangedEvent, e.g. for the search index
+    ApplicationEventPublisher eventPublisher;
+
+    // for writes of many ids, which the cache annotations can not key
+    CacheManager cacheManager;
+
+    // cache misses of concurrent requests are loaded together
+    EmployeeBatchLoader employeeLoader;
+
+    // transactional so the change event is written to the outbox in the same transaction as the employee
     @Override
+    @Transactional
+    @CachePut(cacheNames = EMPLOYEES_CACHE, key = "#result.id")
     public Employee saveEmployee(Employee employee) {
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if (savedEmployee.isPresent()) {
-            throw new ResourceNotFoundException("Employee already found with email: " + employee.getEmail());
+        // always an insert, a client supplied id would turn the save into a select followed by a merge
+        employee.setId(0);
+        try {
+            // the unique index on email rejects duplicates in the same statement, even when creates race each other
+            Employee saved = employeeRepository.saveAndFlush(employee);
+            eventPublisher.publishEvent(EmployeeChangedEvent.saved(saved));
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (!isEmailConstraintViolation(e))
+                throw e;
+            throw new ResourceNotFoundException("Employee already found with email: " + employee.getEmail(), e);
+        }
+    }
+
+    static boolean isEmailConstraintViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase().contains(Employee.EMAIL_CONSTRAINT);
+    }
+
+    @Override
+    @Transactional
+    public List<EmployeeBatchResult> saveEmployees(List<Employee> employees) {
+        Set<String> takenEmails = findExistingEmails(employees);
+        EmployeeBatchResult[] results = new EmployeeBatchResult[employees.size()];
+        List<Integer> pending = new ArrayList<>();
+
+        for (int i = 0; i < employees.size(); i++) {
+            Employee employee = employees.get(i);
+            if (employee.getEmail() == null || employee.getFirstname() == null || employee.getLastname() == null) {
+                results[i] = EmployeeBatchResult.invalid(i, employee.getEmail(), "firstname, lastname and email are required");
+            } else if (!takenEmails.add(employee.getEmail().toLowerCase(Locale.ROOT))) {
+                results[i] = EmployeeBatchResult.duplicate(i, employee.getEmail());
+            } else {
+                pending.add(i);
+            }
+        }
+
+        List<Employee> created = new ArrayList<>(pending.size());
+        for (int from = 0; from < pending.size(); from += INSERT_CHUNK_SIZE) {
+            List<Integer> chunk = pending.subList(from, Math.min(from + INSERT_CHUNK_SIZE, pending.size()));
+            for (int i : chunk) {
+                Employee employee = employees.get(i);
+                // client supplied ids are ignored, the pooled sequence hands out ids without a round trip per row
+                employee.setId(0);
+                entityManager.persist(employee);
+                created.add(employee);
+                results[i] = EmployeeBatchResult.created(i, employee.getEmail(), employee.getId());
+            }
+            // through the repository, which translates a violated constraint into a DataIntegrityViolationException
+            employeeRepository.flush();
+            entityManager.clear();
+        }
+        if (!created.isEmpty())
+            eventPublisher.publishEvent(EmployeeChangedEvent.saved(created));
+        return List.of(results);
+    }
+
+    // lower cased, the unique index compares emails with the case insensitive collation of the column
+    private Set<String> findExistingEmails(List<Employee> employees) {
+        List<String> emails = employees.stream().map(Employee::getEmail).filter(Objects::nonNull).distinct().toList();
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < emails.size(); from += IN_LIST_CHUNK_SIZE) {
+            employeeRepository.findExistingEmails(emails.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, emails.size())))
+                    .forEach(email -> existing.add(email.toLowerCase(Locale.ROOT)));
+        }
+        return existing;
+    }
+
+    // read-only transactions put the session in manual flush and read-only mode, nothing is dirty checked on the way out
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> getAllEmployees() {
+        return employeeRepository.findAllViews();
+    }
+
+    @Override
+    public EmployeesVersion getEmployeesVersion() {
+        return employeeRepository.findCollectionVersion();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage<EmployeeView> getEmployeesPage(long afterId, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<EmployeeView> employees = employeeRepository.findViewPageAfter(afterId, Limit.of(pageSize));
+        Long nextCursor = employees.size() < pageSize ? null : employees.getLast().id();
+        return new EmployeePage<>(employees, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeePage<Map<String, Object>> getEmployeeFieldsPage(List<String> fields, long afterId, int limit) {
+        checkFields(fields);
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        // the cursor is the id of the last row, so id is selected even when the client did not ask for it
+        List<String> selected = fields.contains("id") ? fields : Stream.concat(fields.stream(), Stream.of("id")).toList();
+        List<Map<String, Object>> rows = employeeRepository.findFields(selected,
+                (root, query, builder) -> builder.greaterThan(root.get("id"), afterId), Limit.of(pageSize));
+        Long nextCursor = rows.size() < pageSize ? null : (Long) rows.getLast().get("id");
+        if (!fields.contains("id"))
+            rows.forEach(row -> row.remove("id"));
+        return new EmployeePage<>(rows, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getEmployeeFieldsById(List<String> fields, Long id) {
+        return employeeRepository.findFields(checkFields(fields), (root, query, builder) -> builder.equal(root.get("id"), id),
+                Limit.of(1)).stream().findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findEmployeeFieldsByName(List<String> fields, String firstname, String lastname) {
+        return employeeRepository.findFields(checkFields(fields), (root, query, builder) -> builder.and(
+                builder.equal(root.get("firstname"), firstname), builder.equal(root.get("lastname"), lastname)),
+                Limit.of(EmployeeRepository.MAX_NAME_MATCHES));
+    }
+
+    // the field names end up in the select list, so only the known attributes get through
+    private static List<String> checkFields(List<String> fields) {
+        if (fields.isEmpty())
+            throw new BadRequestException("At least one employee field has to be selected");
+        for (String field : fields) {
+            if (!EmployeeRepository.SELECTABLE_FIELDS.contains(field))
+                throw new BadRequestException("Unknown employee field: " + field);
         }
-        return employeeRepository.save(employee);
+        return fields;
     }
 
     @Override
-    public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                // detach every row once it is written so the persistence context does not grow with the table
+                entityManager.detach(employee);
+            });
+        }
     }
 
     @Override
+    @Cacheable(cacheNames = EMPLOYEES_CACHE, key = "#id", condition = "#id != null", unless = "#result == null")
     public Optional<Employee> getEmployeeById(Long id){
-        return employeeRepository.findById(id);
+        if (id == null)
+            return Optional.empty();
+        return employeeLoader.findById(id);
+    }
+
+    @Override
+    public Optional<EmployeeVersion> getEmployeeVersion(Long id) {
+        return employeeRepository.findVersionById(id);
+    }
+
+    // results go into the query cache, a miss is read on the primary so a lagging replica can not cache a stale one
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> findEmployeesByName(String firstname, String lastname) {
+        return ReplicaRoutingDataSource.onPrimary(() -> employeeRepository.findViewsByName(firstname, lastname));
     }
 
+    // query cached as well, see findEmployeesByName
     @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeName> findEmployeeNamesByName(String firstname, String lastname) {
+        return ReplicaRoutingDataSource.onPrimary(() -> employeeRepository.findNamesByName(firstname, lastname));
+    }
+
+    /*
+        a blind overwrite in one update statement, nothing is read. the response and the announced change are built
+        from the written fields and updatedAt. the new version is not known without reading the row back, so they
+        leave it unset and the cached employee is evicted rather than replaced
+     */
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = EMPLOYEES_CACHE, key = "#id")
     public Optional<Employee> updateEmployee(Long id, Employee employee){
-        Optional<Employee> employeeDB = getEmployeeById(id);
-        if (employeeDB.isEmpty())
-            return employeeDB;
+        Instant updatedAt = Instant.now();
+        int updated = employeeRepository.updateById(id, employee.getFirstname(), employee.getLastname(),
+                employee.getEmail(), updatedAt);
+        if (updated == 0)
+            return Optional.empty();
 
-        employeeDB.get().setEmail(employee.getEmail());
-        employeeDB.get().setFirstname(employee.getFirstname());
-        employeeDB.get().setLastname(employee.getLastname());
-        employeeRepository.save(employeeDB.get());
-        return employeeDB;
+        evictFromSecondLevelCache(List.of(id));
+        Employee written = Employee.builder().id(id).firstname(employee.getFirstname())
+                .lastname(employee.getLastname()).email(employee.getEmail()).updatedAt(updatedAt).build();
+        eventPublisher.publishEvent(EmployeeChangedEvent.saved(written));
+        return Optional.of(written);
     }
 
+    // the version is checked against the row read, which may come from the second-level cache, and again by the flushed
+    // "where version = ?" update, a write racing in between fails with an optimistic locking exception
     @Override
+    @Transactional
+    @CachePut(cacheNames = EMPLOYEES_CACHE, key = "#id")
+    public Employee updateEmployee(Long id, Employee employee, long expectedVersion) {
+        Employee current = employeeRepository.findById(id)
+                .filter(existing -> existing.getVersion() == expectedVersion)
+                .orElseThrow(() -> versionConflict(id, expectedVersion));
+        if (copyEditableFields(employee, current)) {
+            employeeRepository.flush();
+            eventPublisher.publishEvent(EmployeeChangedEvent.saved(current));
+        }
+        return current;
+    }
+
+    /*
+        loads the rows with one select and lets dirty checking write the changed ones, hibernate sends updates
+        with the same changed columns as one jdbc batch. ids that do not exist or are soft deleted are skipped
+     */
+    @Override
+    @Transactional
+    public List<Employee> updateEmployees(Map<Long, Employee> employees) {
+        List<Employee> updated = employeeRepository.findAllById(employees.keySet());
+        List<Employee> changed = new ArrayList<>(updated.size());
+        for (Employee current : updated) {
+            if (copyEditableFields(employees.get(current.getId()), current))
+                changed.add(current);
+        }
+        // flushed here so the event and the cache carry the new versions
+        employeeRepository.flush();
+        if (!updated.isEmpty()) {
+            Cache cache = Objects.requireNonNull(cacheManager.getCache(EMPLOYEES_CACHE));
+            updated.forEach(employee -> cache.put(employee.getId(), employee));
+        }
+        if (!changed.isEmpty())
+            eventPublisher.publishEvent(EmployeeChangedEvent.saved(changed));
+        return updated;
+    }
+
+    // sets only the fields that differ so dirty checking sees no change when there is none, returns whether any did
+    private static boolean copyEditableFields(Employee from, Employee to) {
+        boolean changed = false;
+        if (!Objects.equals(from.getFirstname(), to.getFirstname())) {
+            to.setFirstname(from.getFirstname());
+            changed = true;
+        }
+        if (!Objects.equals(from.getLastname(), to.getLastname())) {
+            to.setLastname(from.getLastname());
+            changed = true;
+        }
+        if (!Objects.equals(from.getEmail(), to.getEmail())) {
+            to.setEmail(from.getEmail());
+            changed = true;
+        }
+        return changed;
+    }
+
+    // flushed before the change is announced and cached, a taken email then fails here and not only at commit,
+    // after the cache may already hold the patched employee
+    @Override
+    @Transactional
+    @CachePut(cacheNames = EMPLOYEES_CACHE, key = "#id", unless = "#result == null")
+    public Optional<Employee> patchEmployee(Long id, Map<String, Object> patch) {
+        Optional<Employee> existing = employeeRepository.findById(id);
+        existing.ifPresent(employee -> {
+            if (applyPatch(employee, patch)) {
+                employeeRepository.flush();
+                eventPublisher.publishEvent(EmployeeChangedEvent.saved(employee));
+            }
+        });
+        return existing;
+    }
+
+    @Override
+    @Transactional
+    @CachePut(cacheNames = EMPLOYEES_CACHE, key = "#id")
+    public Employee patchEmployee(Long id, Map<String, Object> patch, long expectedVersion) {
+        Employee employee = employeeRepository.findById(id)
+                .filter(existing -> existing.getVersion() == expectedVersion)
+                .orElseThrow(() -> versionConflict(id, expectedVersion));
+        // a write racing in after the read still fails, the flushed update is guarded by "where version = ?"
+        if (applyPatch(employee, patch)) {
+            employeeRepository.flush();
+            eventPublisher.publishEvent(EmployeeChangedEvent.saved(employee));
+        }
+        return employee;
+    }
+
+    /*
+        json merge patch, absent members are left alone and every present member overwrites its field.
+        only fields whose value really changes are set, hibernate's dirty checking then writes just those
+        columns on commit (see @DynamicUpdate) and skips the update entirely when nothing changed.
+        returns whether a field changed, a patch that changes nothing is not announced either
+     */
+    private static boolean applyPatch(Employee employee, Map<String, Object> patch) {
+        Employee patched = Employee.builder().firstname(employee.getFirstname())
+                .lastname(employee.getLastname()).email(employee.getEmail()).build();
+        patch.forEach((field, value) -> {
+            switch (field) {
+                case "firstname" -> patched.setFirstname(requireText(field, value));
+                case "lastname" -> patched.setLastname(requireText(field, value));
+                case "email" -> patched.setEmail(requireText(field, value));
+                default -> throw new BadRequestException("Employee field cannot be patched: " + field);
+            }
+        });
+        return copyEditableFields(patched, employee);
+    }
+
+    // a null member would remove the field, but every employee column is required
+    private static String requireText(String field, Object value) {
+        if (!(value instanceof String text))
+            throw new BadRequestException("Employee field " + field + " must be a string");
+        return text;
+    }
+
+    // a missing id deletes nothing and is not an error, the employee is gone either way. the delete is guarded by
+    // "where version = ?", an update racing in after the read fails it with an optimistic locking exception, 412
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = EMPLOYEES_CACHE, key = "#id")
     public void deleteEmployee(Long id){
-        employeeRepository.deleteById(id);
+        employeeRepository.findById(id).ifPresent(employee -> {
+            employeeRepository.delete(employee);
+            employeeRepository.flush();
+            eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+        });
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = EMPLOYEES_CACHE, key = "#id")
+    public void deleteEmployee(Long id, long expectedVersion) {
+        Employee employee = employeeRepository.findById(id)
+                .filter(existing -> existing.getVersion() == expectedVersion)
+                .orElseThrow(() -> versionConflict(id, expectedVersion));
+        employeeRepository.delete(employee);
+        employeeRepository.flush();
+        eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+    }
+
+    // the ids are known, so only their entries are evicted, one by one like updateEmployees puts them
+    @Override
+    @Transactional
+    public int deleteEmployees(List<Long> ids) {
+        List<Long> distinct = ids.stream().distinct().toList();
+        int deleted = softDelete(distinct);
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(EMPLOYEES_CACHE));
+        distinct.forEach(cache::evict);
+        return deleted;
+    }
+
+    // flags at most limit of the matching rows, so a name shared by a large part of the table can not turn into one
+    // unbounded transaction. the caller repeats the delete until it reports fewer than limit.
+    // the matching ids are only found inside the call, so the whole employee cache is dropped
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = EMPLOYEES_CACHE, allEntries = true)
+    public int deleteEmployeesByName(String firstname, String lastname, int limit) {
+        if (firstname == null && lastname == null)
+            throw new BadRequestException("A bulk delete needs a first name or a last name");
+        Specification<Employee> where = (root, query, builder) -> builder.and(
+                firstname == null ? builder.conjunction() : builder.equal(root.get("firstname"), firstname),
+                lastname == null ? builder.conjunction() : builder.equal(root.get("lastname"), lastname));
+        List<Long> ids = employeeRepository.findFields(List.of("id"), where, Limit.of(limit)).stream()
+                .map(row -> (Long) row.get("id")).toList();
+        return softDelete(ids);
     }
-}
 
+    /*
+        flags the rows instead of deleting them, they drop out of every read at once and EmployeePurgeJob deletes them
+        later in batches small enough not to hold long locks or send one huge transaction down to the replicas.
+        one update per chunk, nothing is loaded. the flagged ids are evicted from the second-level cache one by one,
+        the rest of the region stays. ids that are missing or already deleted are skipped, when a chunk held some the
+        flagged ones are found by the deletedAt of this call, which is why it is cut to the precision of the column
+     */
+    private int softDelete(List<Long> ids) {
+        Instant deletedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        List<Long> deleted = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, ids.size()));
+            int flagged = employeeRepository.softDeleteByIds(chunk, deletedAt);
+            if (flagged == chunk.size())
+                deleted.addAll(chunk);
+            else if (flagged > 0)
+                deleted.addAll(employeeRepository.findIdsDeletedAt(chunk, deletedAt));
+        }
+        if (!deleted.isEmpty()) {
+            evictFromSecondLevelCache(deleted);
+            eventPublisher.publishEvent(EmployeeChangedEvent.deleted(deleted));
+        }
+        return deleted.size();
+    }
+
+    @Override
+    @Transactional
+    public int purgeDeletedEmployees(int batchSize) {
+        List<Long> ids = employeeRepository.findDeletedIds(batchSize);
+        return ids.isEmpty() ? 0 : employeeRepository.purgeByIds(ids);
+    }
+
+    /*
+        drops the second-level entries of rows written by a native statement, which names ROW_EVICTED_SPACE so that
+        hibernate leaves the rest of the region alone, and the cached query results that may hold them. evicted again
+        once the transaction completes, a concurrent read may have cached the old row in between
+     */
+    private void evictFromSecondLevelCache(Collection<Long> ids) {
+        Runnable evict = () -> {
+            jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+            ids.forEach(id -> cache.evict(Employee.class, id));
+            cache.unwrap(org.hibernate.Cache.class).evictQueryRegion(EmployeeRepository.QUERY_CACHE_REGION);
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    // a missing row fails the precondition as well, there is no current version for the client's etag to match
+    private static OptimisticLockingFailureException versionConflict(Long id, long expectedVersion) {
+        return new OptimisticLockingFailureException("Employee " + id + " is not at version " + expectedVersion);
+    }
+}
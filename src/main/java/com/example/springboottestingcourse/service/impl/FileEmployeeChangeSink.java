@@ -0,0 +1,33 @@
+package com.example.springboottestingcourse.service.impl;
+
+import com.example.springboottestingcourse.dto.EmployeeChange;
+import com.example.springboottestingcourse.service.EmployeeChangeSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// appends every change as one json line, a stand-in for a broker when running locally
+public class FileEmployeeChangeSink implements EmployeeChangeSink {
+
+    private final Path file;
+
+    private final ObjectMapper objectMapper;
+
+    public FileEmployeeChangeSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<EmployeeChange> changes) throws IOException {
+        List<String> lines = new ArrayList<>(changes.size());
+        for (EmployeeChange change : changes)
+            lines.add(objectMapper.writeValueAsString(change));
+        Files.write(file, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
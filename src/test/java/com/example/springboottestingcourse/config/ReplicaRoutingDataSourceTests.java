@@ -0,0 +1,185 @@
+package com.example.springboottestingcourse.config;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceTests {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica0;
+
+    @Mock
+    private DataSource replica1;
+
+    @Mock
+    private ReplicaLagMonitor lagMonitor;
+
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @BeforeEach
+    public void setup(){
+        replicaRoutingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica0, replica1), lagMonitor);
+    }
+
+    @DisplayName("JUnit test for sending read only connections to a replica and the rest to the primary")
+    @Test
+    public void givenCaughtUpReplica_whenReadOnlyAndReadWriteConnections_thenSplitBetweenReplicaAndPrimary() throws Exception {
+        // given - precondition or setup
+        Connection primaryConnection = mock(Connection.class);
+        Connection replicaConnection = mock(Connection.class);
+        given(primary.getConnection()).willReturn(primaryConnection);
+        given(replica0.getConnection()).willReturn(replicaConnection);
+        given(lagMonitor.healthyReplicas()).willReturn(List.of(0));
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+
+        // when - action that will be tested
+        Connection read = dataSource.getConnection();
+        read.setReadOnly(true);
+        read.createStatement();
+        Connection write = dataSource.getConnection();
+        write.createStatement();
+
+        // then - the expected output
+        verify(replicaConnection).createStatement();
+        verify(primaryConnection).createStatement();
+    }
+
+    @DisplayName("JUnit test for falling back to the primary when replicas lag or the client must read its writes")
+    @Test
+    public void givenReplicaHealth_whenRoutingReads_thenRoundRobinOrFallBackToPrimary() {
+        // given - precondition or setup
+        given(lagMonitor.healthyReplicas()).willReturn(List.of(0, 1), List.of(0, 1), List.of());
+
+        // when - action that will be tested
+        List<Object> targets = new ArrayList<>();
+        targets.add(replicaRoutingDataSource.determineCurrentLookupKey());
+        targets.add(replicaRoutingDataSource.determineCurrentLookupKey());
+        targets.add(replicaRoutingDataSource.determineCurrentLookupKey());
+        ReplicaRoutingDataSource.pinToPrimary(true);
+        try {
+            targets.add(replicaRoutingDataSource.determineCurrentLookupKey());
+        } finally {
+            ReplicaRoutingDataSource.pinToPrimary(false);
+        }
+
+        // then - the expected output
+        assertThat(targets).containsExactly(0, 1, ReplicaRoutingDataSource.PRIMARY, ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @DisplayName("JUnit test for taking replicas that are behind, stopped or unreachable out of rotation")
+    @Test
+    public void givenReplicaLags_whenRefreshing_thenOnlyReplicasWithinToleranceAreHealthy() throws Exception {
+        // given - precondition or setup
+        ReplicaDataSourceProperties properties = new ReplicaDataSourceProperties(List.of("a", "b", "c"), null, null,
+                10, Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofSeconds(5),
+                "SHOW REPLICA STATUS", "Seconds_Behind_Source");
+        DataSource unreachable = mock(DataSource.class);
+        given(unreachable.getConnection()).willThrow(new SQLException("refused"));
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(List.of(
+                replica(properties, 1L), replica(properties, 30L), replica(properties, null), unreachable), properties);
+
+        // when - action that will be tested
+        monitor.refresh();
+
+        // then - the expected output
+        assertThat(monitor.healthyReplicas()).containsExactly(0);
+        monitor.close();
+    }
+
+    @DisplayName("JUnit test for starting the lag monitor without waiting for the first check")
+    @Test
+    public void givenSlowReplica_whenStarting_thenReturnAtOnceAndKeepReplicaOutUntilChecked() throws Exception {
+        // given - precondition or setup
+        ReplicaDataSourceProperties properties = new ReplicaDataSourceProperties(List.of("a"), null, null,
+                10, Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofSeconds(5),
+                "SHOW REPLICA STATUS", "Seconds_Behind_Source");
+        Connection connection = replica(properties, 1L).getConnection();
+        CountDownLatch answer = new CountDownLatch(1);
+        DataSource slow = mock(DataSource.class);
+        given(slow.getConnection()).willAnswer(invocation -> {
+            answer.await();
+            return connection;
+        });
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(List.of(slow), properties);
+
+        // when - action that will be tested
+        monitor.start();
+
+        // then - the expected output
+        assertThat(monitor.healthyReplicas()).isEmpty();
+        answer.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (monitor.healthyReplicas().isEmpty() && System.nanoTime() < deadline)
+            Thread.sleep(10);
+        assertThat(monitor.healthyReplicas()).containsExactly(0);
+        monitor.close();
+    }
+
+    @DisplayName("JUnit test for pinning reads to the primary after a write through the read your writes cookie")
+    @Test
+    public void givenWriteThenReads_whenFiltering_thenPinnedUntilTheCookieExpires() throws Exception {
+        // given - precondition or setup
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+        List<Boolean> pinned = new ArrayList<>();
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/v1/employees/1");
+        MockHttpServletRequest expiredRead = new MockHttpServletRequest("GET", "/api/v1/employees/1");
+        expiredRead.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+
+        // when - action that will be tested
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/v1/employees/1"), writeResponse,
+                (request, response) -> pinned.add(ReplicaRoutingDataSource.isPinnedToPrimary()));
+        read.setCookies(writeResponse.getCookie(ReadYourWritesFilter.COOKIE));
+        filter.doFilter(read, new MockHttpServletResponse(),
+                (request, response) -> pinned.add(ReplicaRoutingDataSource.isPinnedToPrimary()));
+        filter.doFilter(expiredRead, new MockHttpServletResponse(),
+                (request, response) -> pinned.add(ReplicaRoutingDataSource.isPinnedToPrimary()));
+
+        // then - the expected output
+        assertThat(pinned).containsExactly(true, true, false);
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+    }
+
+    private static DataSource replica(ReplicaDataSourceProperties properties, Long lagSeconds) throws Exception {
+        DataSource replica = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet status = mock(ResultSet.class);
+        given(replica.getConnection()).willReturn(connection);
+        given(connection.createStatement()).willReturn(statement);
+        given(statement.executeQuery(properties.lagQuery())).willReturn(status);
+        given(status.next()).willReturn(true);
+        given(status.getLong(properties.lagColumn())).willReturn(lagSeconds == null ? 0L : lagSeconds);
+        given(status.wasNull()).willReturn(lagSeconds == null);
+        return replica;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.springboottestingcourse.controller;
+
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.service.EmployeeAsyncService;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeAsyncController.class)
+public class EmployeeAsyncControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeAsyncService employeeAsyncService;
+
+    private static final String URL = "/api/v1/employees/async";
+
+    @DisplayName("JUnit test to get employee by id on the async endpoint")
+    @Test
+    public void givenEmployeeId_whenGetEmployeeAsync_thenReturnEmployeeOnceCompleted() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().id(1L).firstname("John")
+                .lastname("Smith").email("jsmith@gmail.com").build();
+        given(employeeAsyncService.getEmployeeById(1L)).willReturn(CompletableFuture.completedFuture(Optional.of(employee)));
+
+        // when - action that will be tested
+
+        MvcResult result = mockMvc.perform(get(URL + "/{id}", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the expected output
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email", CoreMatchers.is("jsmith@gmail.com")));
+    }
+
+    @DisplayName("JUnit test to get a missing employee on the async endpoint")
+    @Test
+    public void givenMissingEmployeeId_whenGetEmployeeAsync_thenReturnNotFound() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeAsyncService.getEmployeeById(1L)).willReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        // when - action that will be tested
+
+        MvcResult result = mockMvc.perform(get(URL + "/{id}", 1L)).andReturn();
+
+        // then - verify the expected output
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+    }
+
+    @DisplayName("JUnit test to map a full query pool and a timed out query on the async endpoint")
+    @Test
+    public void givenRejectedAndTimedOutQueries_whenGetEmployeesAsync_thenReturnUnavailableAndGatewayTimeout() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeAsyncService.getAllEmployees())
+                .willReturn(CompletableFuture.failedFuture(new TaskRejectedException("full")));
+        given(employeeAsyncService.findEmployeesByName("John", "Smith"))
+                .willReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+        // when - action that will be tested
+
+        MvcResult rejected = mockMvc.perform(get(URL)).andReturn();
+        MvcResult timedOut = mockMvc.perform(get(URL + "/search")
+                .param("firstname", "John").param("lastname", "Smith")).andReturn();
+
+        // then - verify the expected output
+
+        mockMvc.perform(asyncDispatch(rejected)).andExpect(status().isServiceUnavailable());
+        mockMvc.perform(asyncDispatch(timedOut)).andExpect(status().isGatewayTimeout());
+    }
+}
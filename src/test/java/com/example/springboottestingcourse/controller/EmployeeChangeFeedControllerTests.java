@@ -0,0 +1,77 @@
+package com.example.springboottestingcourse.controller;
+
+import com.example.springboottestingcourse.dto.EmployeeChange;
+import com.example.springboottestingcourse.model.EmployeeOutboxEvent;
+import com.example.springboottestingcourse.service.EmployeeOutboxService;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeChangeFeedController.class)
+public class EmployeeChangeFeedControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeOutboxService outboxService;
+
+    private static final String URL = "/api/v1/employees/changes";
+
+    @DisplayName("JUnit test to read the change feed after a cursor")
+    @Test
+    public void givenPublishedChanges_whenGetChanges_thenReturnPageWithLastSequenceAsCursor() throws Exception {
+
+        // given - precondition or setup
+
+        given(outboxService.getChanges(5, 2)).willReturn(List.of(
+                new EmployeeChange(6, 11, EmployeeOutboxEvent.Type.SAVED, 1,
+                        "{\"id\":1,\"firstname\":\"John\"}", Instant.EPOCH),
+                new EmployeeChange(7, 12, EmployeeOutboxEvent.Type.DELETED, 1, null, Instant.EPOCH)));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL).param("after", "5").param("limit", "2"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].employee.firstname", CoreMatchers.is("John")))
+                .andExpect(jsonPath("$.content[1].type", CoreMatchers.is("DELETED")))
+                .andExpect(jsonPath("$.nextCursor", CoreMatchers.is(7)));
+    }
+
+    @DisplayName("JUnit test to poll the change feed when nothing new was published")
+    @Test
+    public void givenNoNewChanges_whenGetChanges_thenKeepTheCursor() throws Exception {
+
+        // given - precondition or setup
+
+        given(outboxService.getChanges(7, 100)).willReturn(List.of());
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL).param("after", "7"));
+
+        // then - verify the expected output
+
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", CoreMatchers.is(0)))
+                .andExpect(jsonPath("$.nextCursor", CoreMatchers.is(7)));
+    }
+}
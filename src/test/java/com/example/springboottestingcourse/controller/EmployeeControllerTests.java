@@ -1,7 +1,17 @@
 package com.example.springboottestingcourse.controller;
 
+import com.example.springboottestingcourse.config.EmployeeWriteBehindProperties;
+import com.example.springboottestingcourse.dto.EmployeeBatchResult;
+import com.example.springboottestingcourse.dto.EmployeeName;
+import com.example.springboottestingcourse.dto.EmployeePage;
+import com.example.springboottestingcourse.dto.EmployeeVersion;
+import com.example.springboottestingcourse.dto.EmployeeView;
+import com.example.springboottestingcourse.dto.EmployeesVersion;
+import com.example.springboottestingcourse.exception.BadRequestException;
+import com.example.springboottestingcourse.exception.ResourceNotFoundException;
 import com.example.springboottestingcourse.model.Employee;
 import com.example.springboottestingcourse.service.EmployeeService;
+import com.example.springboottestingcourse.service.EmployeeWriteBehindBuffer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.hamcrest.CoreMatchers;
 import org.hibernate.mapping.Any;
@@ -11,21 +21,28 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.BDDMockito.*;
 
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
 public class EmployeeControllerTests {
 
     @Autowired
@@ -34,6 +51,9 @@ public class EmployeeControllerTests {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeWriteBehindBuffer writeBehindBuffer;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -74,9 +94,35 @@ public class EmployeeControllerTests {
     }
 
 
-    @DisplayName("JUnit test to get all employees endpoint")
+    @DisplayName("JUnit test to create employee endpoint with a taken email")
     @Test
-    public void given_whenGetAllEmployees_thenReturnEmployeesList() throws Exception {
+    public void givenTakenEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().firstname("first")
+                .lastname("last").email("adndf@gmail.com").build();
+
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new ResourceNotFoundException("Employee already found with email: " + employee.getEmail()));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(post(URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Employee already found with email: " + employee.getEmail()));
+    }
+
+
+    @DisplayName("JUnit test to batch create employees endpoint")
+    @Test
+    public void givenEmployeeList_whenCreateEmployees_thenReturnPerItemResults() throws Exception {
 
         // given - precondition or setup
 
@@ -84,10 +130,58 @@ public class EmployeeControllerTests {
                 .lastname("last").email("adndf@gmail.com").build();
 
         Employee employee2 = Employee.builder().firstname("second")
-                .lastname("last").email("adndfsd@gmail.com").build();
+                .lastname("last").email("adndf@gmail.com").build();
+
+        given(employeeService.saveEmployees(List.of(employee, employee2)))
+                .willReturn(List.of(EmployeeBatchResult.created(0, employee.getEmail(), 1L),
+                        EmployeeBatchResult.duplicate(1, employee2.getEmail())));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(post(URL + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(employee, employee2))));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(2)))
+                .andExpect(jsonPath("$[0].status", CoreMatchers.is("CREATED")))
+                .andExpect(jsonPath("$[0].id", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$[1].status", CoreMatchers.is("DUPLICATE")));
+    }
+
+    @DisplayName("JUnit test to batch create employees endpoint with an empty list")
+    @Test
+    public void givenEmptyList_whenCreateEmployees_thenReturnBadRequest() throws Exception {
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(post(URL + "/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
 
-        List<Employee> employees = List.of(employee, employee2);
+    @DisplayName("JUnit test to get all employees endpoint")
+    @Test
+    public void given_whenGetAllEmployees_thenReturnEmployeesList() throws Exception {
+
+        // given - precondition or setup
 
+        EmployeeView employee = new EmployeeView(1L, "first", "last", "adndf@gmail.com", 0, null);
+
+        EmployeeView employee2 = new EmployeeView(2L, "second", "last", "adndfsd@gmail.com", 0, null);
+
+        List<EmployeeView> employees = List.of(employee, employee2);
+
+        given(employeeService.getEmployeesVersion()).willReturn(new EmployeesVersion(2, 2, 0, Instant.EPOCH));
         given(employeeService.getAllEmployees()).willReturn(employees);
 
         // when - action that will be tested
@@ -98,10 +192,207 @@ public class EmployeeControllerTests {
 
         response.andDo(print())
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2-2-0-0\""))
                 .andExpect(jsonPath("$.size()",
                         CoreMatchers.is(employees.size())));
     }
 
+    @DisplayName("JUnit test to get all employees endpoint with a current etag")
+    @Test
+    public void givenCurrentETag_whenGetAllEmployees_thenReturnNotModified() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeService.getEmployeesVersion()).willReturn(new EmployeesVersion(2, 2, 0, Instant.EPOCH));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL).header("If-None-Match", "\"2-2-0-0\""));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+
+    @DisplayName("JUnit test to get a keyset page of employees endpoint")
+    @Test
+    public void givenAfterIdAndLimit_whenGetEmployeesPage_thenReturnPageWithCursor() throws Exception {
+
+        // given - precondition or setup
+
+        EmployeeView employee = new EmployeeView(11L, "first", "last", "adndf@gmail.com", 0, null);
+
+        EmployeeView employee2 = new EmployeeView(12L, "second", "last", "adndfsd@gmail.com", 0, null);
+
+        given(employeeService.getEmployeesPage(10L, 2))
+                .willReturn(new EmployeePage<>(List.of(employee, employee2), 12L));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL)
+                .param("afterId", "10")
+                .param("limit", "2"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.size()", CoreMatchers.is(2)))
+                .andExpect(jsonPath("$.nextCursor", CoreMatchers.is(12)));
+    }
+
+
+    @DisplayName("JUnit test to stream all employees endpoint")
+    @Test
+    public void given_whenStreamAllEmployees_thenWriteJsonArray() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().id(1L).firstname("first")
+                .lastname("last").email("adndf@gmail.com").build();
+
+        Employee employee2 = Employee.builder().id(2L).firstname("second")
+                .lastname("last").email("adndfsd@gmail.com").build();
+
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            consumer.accept(employee2);
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+
+        // when - action that will be tested
+
+        MvcResult result = mockMvc.perform(get(URL + "/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the expected output
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(2)))
+                .andExpect(jsonPath("$[1].email", CoreMatchers.is(employee2.getEmail())));
+    }
+
+
+    @DisplayName("JUnit test to search employees by first and last names endpoint")
+    @Test
+    public void givenFirstAndLastNames_whenSearchEmployees_thenReturnMatchingEmployees() throws Exception {
+
+        // given - precondition or setup
+
+        EmployeeView employee = new EmployeeView(1L, "first", "last", "adndf@gmail.com", 0, null);
+
+        EmployeeView employee2 = new EmployeeView(2L, "first", "last", "adndfsd@gmail.com", 0, null);
+
+        given(employeeService.findEmployeesByName("first", "last")).willReturn(List.of(employee, employee2));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL + "/search")
+                .param("firstname", "first")
+                .param("lastname", "last"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(2)));
+    }
+
+
+    @DisplayName("JUnit test to get selected fields of all employees endpoint without a limit")
+    @Test
+    public void givenFields_whenGetAllEmployees_thenReturnFirstPageOfSelectedFields() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeService.getEmployeeFieldsPage(List.of("id", "email"), 0L, EmployeeController.DEFAULT_FIELDS_PAGE_SIZE))
+                .willReturn(new EmployeePage<>(List.of(Map.of("id", 1L, "email", "adndf@gmail.com")), null));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL).param("fields", "id,email"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].email", CoreMatchers.is("adndf@gmail.com")))
+                .andExpect(jsonPath("$.content[0].firstname").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        verify(employeeService, never()).getAllEmployees();
+    }
+
+    @DisplayName("JUnit test to get a keyset page of selected employee fields endpoint")
+    @Test
+    public void givenFieldsAndLimit_whenGetEmployeesPage_thenReturnSparsePage() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeService.getEmployeeFieldsPage(List.of("email"), 0L, 1))
+                .willReturn(new EmployeePage<>(List.of(Map.of("email", "adndf@gmail.com")), 1L));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL).param("limit", "1").param("fields", "email"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].email", CoreMatchers.is("adndf@gmail.com")))
+                .andExpect(jsonPath("$.nextCursor", CoreMatchers.is(1)));
+    }
+
+    @DisplayName("JUnit test to get selected fields of an employee by id endpoint with an unknown field")
+    @Test
+    public void givenUnknownField_whenGetEmployeeById_thenReturnBadRequest() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeService.getEmployeeFieldsById(List.of("salary"), 1L))
+                .willThrow(new BadRequestException("Unknown employee field: salary"));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL + "/{id}", 1L).param("fields", "salary"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @DisplayName("JUnit test to search employee names by first and last names endpoint")
+    @Test
+    public void givenFirstAndLastNames_whenSearchEmployeeNames_thenReturnProjection() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeService.findEmployeeNamesByName("first", "last"))
+                .willReturn(List.of(new EmployeeName(1L, "first", "last")));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL + "/search/names")
+                .param("firstname", "first")
+                .param("lastname", "last"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$[0].email").doesNotExist());
+    }
+
 
     @DisplayName("JUnit test to get employee by id endpoint")
     @Test
@@ -133,6 +424,75 @@ public class EmployeeControllerTests {
     }
 
 
+    @DisplayName("JUnit test to get employee by id endpoint with a current etag")
+    @Test
+    public void givenCurrentETag_whenGetEmployeeById_thenReturnNotModifiedWithoutLoading() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeService.getEmployeeVersion(1L))
+                .willReturn(Optional.of(new EmployeeVersion(3, Instant.parse("2024-01-01T10:00:00Z"))));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL + "/{id}", 1L).header("If-None-Match", "\"3\""));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+        verify(employeeService, never()).getEmployeeById(anyLong());
+    }
+
+    @DisplayName("JUnit test to get employee by id endpoint with a stale etag")
+    @Test
+    public void givenStaleETag_whenGetEmployeeById_thenReturnEmployeeWithValidators() throws Exception {
+
+        // given - precondition or setup
+
+        Instant updatedAt = Instant.parse("2024-01-01T10:00:00Z");
+        Employee employee = Employee.builder().id(1L).firstname("first")
+                .lastname("last").email("adndf@gmail.com").version(4).updatedAt(updatedAt).build();
+
+        given(employeeService.getEmployeeVersion(1L)).willReturn(Optional.of(new EmployeeVersion(4, updatedAt)));
+        given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL + "/{id}", 1L).header("If-None-Match", "\"3\""));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(header().dateValue("Last-Modified", updatedAt.toEpochMilli()))
+                .andExpect(jsonPath("$.version", CoreMatchers.is(4)));
+    }
+
+    @DisplayName("JUnit test to get employee by id endpoint not modified since the client copy")
+    @Test
+    public void givenIfModifiedSince_whenGetEmployeeById_thenReturnNotModified() throws Exception {
+
+        // given - precondition or setup
+
+        Instant updatedAt = Instant.parse("2024-01-01T10:00:00Z");
+        given(employeeService.getEmployeeVersion(1L)).willReturn(Optional.of(new EmployeeVersion(3, updatedAt)));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL + "/{id}", 1L)
+                .header("If-Modified-Since", "Mon, 01 Jan 2024 10:00:00 GMT"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isNotModified());
+        verify(employeeService, never()).getEmployeeById(anyLong());
+    }
+
     @DisplayName("JUnit test to get employee by id endpoint (negative scenario)")
     @Test
     public void givenEmployeeId_whenGetEmployeeById_thenThrowException() throws Exception {
@@ -209,6 +569,205 @@ public class EmployeeControllerTests {
                 .andExpect(status().isNotFound());
     }
 
+    @DisplayName("JUnit test to update employee endpoint with buffered write-behind")
+    @Test
+    public void givenBufferedWriteBehind_whenUpdateEmployee_thenReturnAccepted() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().id(1L).firstname("first")
+                .lastname("last").email("adndf@gmail.com").build();
+        given(writeBehindBuffer.isEnabled()).willReturn(true);
+        given(writeBehindBuffer.durability()).willReturn(EmployeeWriteBehindProperties.Durability.BUFFERED);
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(put(URL + "/{id}", employee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the expected output
+
+        response.andExpect(status().isAccepted());
+        verify(writeBehindBuffer).submit(1L, employee);
+        verify(employeeService, never()).updateEmployee(any(), any());
+    }
+
+    @DisplayName("JUnit test to update employee endpoint with flushed write-behind")
+    @Test
+    public void givenFlushedWriteBehind_whenUpdateEmployee_thenReturnFlushedEmployee() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().id(1L).firstname("first")
+                .lastname("last").email("adndf@gmail.com").build();
+        Employee updatedEmployee = Employee.builder().id(1L).firstname("first")
+                .lastname("last").email("adndf@gmail.com").version(2).build();
+        given(writeBehindBuffer.isEnabled()).willReturn(true);
+        given(writeBehindBuffer.durability()).willReturn(EmployeeWriteBehindProperties.Durability.FLUSHED);
+        given(writeBehindBuffer.submitAndWait(1L, employee)).willReturn(Optional.of(updatedEmployee));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(put(URL + "/{id}", employee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the expected output
+
+        response.andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(jsonPath("$.version", CoreMatchers.is(2)));
+    }
+
+    @DisplayName("JUnit test to update employee endpoint with a write-behind flush that times out")
+    @Test
+    public void givenSlowWriteBehindFlush_whenUpdateEmployee_thenReturnGatewayTimeout() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().id(1L).firstname("first")
+                .lastname("last").email("adndf@gmail.com").build();
+        given(writeBehindBuffer.isEnabled()).willReturn(true);
+        given(writeBehindBuffer.durability()).willReturn(EmployeeWriteBehindProperties.Durability.FLUSHED);
+        given(writeBehindBuffer.submitAndWait(1L, employee)).willThrow(new TimeoutException());
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(put(URL + "/{id}", employee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the expected output
+
+        response.andExpect(status().isGatewayTimeout());
+    }
+
+    @DisplayName("JUnit test to update employee endpoint with a current If-Match")
+    @Test
+    public void givenCurrentIfMatch_whenUpdateEmployee_thenReturnUpdatedEmployeeWithNewETag() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().id(1L).firstname("first updated")
+                .lastname("last").email("adndf@gmail.com").build();
+        Employee updatedEmployee = Employee.builder().id(1L).firstname("first updated")
+                .lastname("last").email("adndf@gmail.com").version(4).build();
+
+        given(employeeService.updateEmployee(1L, employee, 3L)).willReturn(updatedEmployee);
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(put(URL + "/{id}", 1L)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version", CoreMatchers.is(4)));
+    }
+
+    @DisplayName("JUnit test to update employee endpoint with a stale If-Match")
+    @Test
+    public void givenStaleIfMatch_whenUpdateEmployee_thenReturnPreconditionFailed() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().id(1L).firstname("first updated")
+                .lastname("last").email("adndf@gmail.com").build();
+
+        given(employeeService.updateEmployee(1L, employee, 2L))
+                .willThrow(new OptimisticLockingFailureException("Employee 1 is not at version 2"));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(put(URL + "/{id}", 1L)
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @DisplayName("JUnit test to update employee endpoint with a weak If-Match")
+    @Test
+    public void givenWeakIfMatch_whenUpdateEmployee_thenReturnPreconditionFailedWithoutUpdating() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().id(1L).firstname("first updated")
+                .lastname("last").email("adndf@gmail.com").build();
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(put(URL + "/{id}", 1L)
+                .header("If-Match", "W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isPreconditionFailed());
+        verifyNoInteractions(employeeService);
+    }
+
+    @DisplayName("JUnit test to patch employee endpoint")
+    @Test
+    public void givenMergePatch_whenPatchEmployee_thenReturnPatchedEmployee() throws Exception {
+
+        // given - precondition or setup
+
+        Employee patchedEmployee = Employee.builder().id(1L).firstname("first patched")
+                .lastname("last").email("adndf@gmail.com").build();
+
+        given(employeeService.patchEmployee(1L, Map.of("firstname", "first patched")))
+                .willReturn(Optional.of(patchedEmployee));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(patch(URL + "/{id}", 1L)
+                .contentType("application/merge-patch+json")
+                .content("{\"firstname\":\"first patched\"}"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstname",
+                        CoreMatchers.is(patchedEmployee.getFirstname())))
+                .andExpect(jsonPath("$.lastname",
+                        CoreMatchers.is(patchedEmployee.getLastname())));
+    }
+
+    @DisplayName("JUnit test to patch employee endpoint removing a required field")
+    @Test
+    public void givenNullMember_whenPatchEmployee_thenReturnBadRequest() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeService.patchEmployee(eq(1L), any()))
+                .willThrow(new BadRequestException("Employee field email must be a string"));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(patch(URL + "/{id}", 1L)
+                .contentType("application/merge-patch+json")
+                .content("{\"email\":null}"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void deleteEmployee_Success() throws Exception {
         Long id = 1L;
@@ -242,4 +801,50 @@ public class EmployeeControllerTests {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Employee is deleted with ID: " + id));
     }
+
+    @Test
+    public void deleteEmployee_StaleIfMatch() throws Exception {
+        Long id = 1L;
+
+        // Mock the conditional deleteEmployee method
+        willThrow(new OptimisticLockingFailureException("Employee 1 is not at version 2"))
+                .given(employeeService).deleteEmployee(id, 2L);
+
+        // Perform the DELETE request
+        mockMvc.perform(delete(URL+"/{id}", id).header("If-Match", "\"2\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @DisplayName("JUnit test to bulk delete employees by id endpoint")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeService.deleteEmployees(List.of(1L, 2L, 3L))).willReturn(2);
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(delete(URL).param("ids", "1,2,3"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", CoreMatchers.is(2)));
+    }
+
+    @DisplayName("JUnit test to bulk delete employees endpoint without ids or names (negative scenario)")
+    @Test
+    public void givenNoCriterion_whenDeleteEmployees_thenReturnBadRequest() throws Exception {
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(delete(URL));
+
+        // then - verify the expected output
+
+        response.andExpect(status().isBadRequest());
+        verify(employeeService, never()).deleteEmployeesByName(any(), any(), anyInt());
+    }
 }
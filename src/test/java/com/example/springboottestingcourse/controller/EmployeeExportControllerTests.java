@@ -0,0 +1,146 @@
+package com.example.springboottestingcourse.controller;
+
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EmployeeExportController.class)
+public class EmployeeExportControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    private static final String URL = "/api/v1/employees/export";
+
+    @BeforeEach
+    public void setup(){
+        Employee employee = Employee.builder().id(1L).firstname("first")
+                .lastname("last").email("adndf@gmail.com").version(2)
+                .updatedAt(Instant.parse("2024-01-01T10:00:00Z")).build();
+
+        Employee employee2 = Employee.builder().id(2L).firstname("second, \"quoted\"")
+                .lastname("last").email("adndfsd@gmail.com").build();
+
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            consumer.accept(employee2);
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+    }
+
+    @DisplayName("JUnit test to export employees as csv endpoint")
+    @Test
+    public void given_whenExportCsv_thenWriteHeaderAndRows() throws Exception {
+
+        // when - action that will be tested
+
+        MvcResult result = mockMvc.perform(get(URL + "/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the expected output
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("""
+                        id,firstname,lastname,email,version,updatedAt
+                        1,first,last,adndf@gmail.com,2,2024-01-01T10:00:00Z
+                        2,"second, ""quoted\""",last,adndfsd@gmail.com,0,
+                        """));
+    }
+
+    @DisplayName("JUnit test to export employees as ndjson endpoint")
+    @Test
+    public void given_whenExportNdjson_thenWriteOneObjectPerLine() throws Exception {
+
+        // when - action that will be tested
+
+        MvcResult result = mockMvc.perform(get(URL + "/ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the expected output
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.lines()).hasSize(2);
+        assertThat(body.lines().toList().get(1)).startsWith("{\"id\":2,");
+    }
+
+    @DisplayName("JUnit test to export employees as gzip compressed csv endpoint")
+    @Test
+    public void givenAcceptEncodingGzip_whenExportCsv_thenCompressBody() throws Exception {
+
+        // when - action that will be tested
+
+        MvcResult result = mockMvc.perform(get(URL + "/csv").header("Accept-Encoding", "br, gzip;q=0.8"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then - verify the expected output
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            String csv = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(csv).startsWith(EmployeeExportController.CSV_HEADER);
+            assertThat(csv.lines()).hasSize(3);
+        }
+    }
+
+    @DisplayName("JUnit test for gzip refused by the client")
+    @Test
+    public void givenGzipWithZeroQuality_whenCheckingAcceptEncoding_thenDoNotCompress() {
+        assertThat(EmployeeExportController.acceptsGzip("gzip;q=0, deflate")).isFalse();
+        assertThat(EmployeeExportController.acceptsGzip("deflate")).isFalse();
+        assertThat(EmployeeExportController.acceptsGzip("GZIP")).isTrue();
+    }
+
+    @DisplayName("JUnit test for gzip accepted through the wildcard coding")
+    @Test
+    public void givenWildcardCoding_whenCheckingAcceptEncoding_thenCompressUnlessGzipIsRefused() {
+        assertThat(EmployeeExportController.acceptsGzip("br, *")).isTrue();
+        assertThat(EmployeeExportController.acceptsGzip("*;q=0")).isFalse();
+        assertThat(EmployeeExportController.acceptsGzip("gzip;q=0, *")).isFalse();
+        assertThat(EmployeeExportController.acceptsGzip("*, gzip;q=0")).isFalse();
+    }
+
+    @DisplayName("JUnit test for a malformed quality value in accept encoding")
+    @Test
+    public void givenMalformedQuality_whenCheckingAcceptEncoding_thenTreatItAsOne() {
+        assertThat(EmployeeExportController.acceptsGzip("gzip;q=high")).isTrue();
+        assertThat(EmployeeExportController.acceptsGzip("gzip;q=")).isTrue();
+    }
+}
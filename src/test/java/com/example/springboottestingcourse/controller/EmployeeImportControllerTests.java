@@ -0,0 +1,104 @@
+package com.example.springboottestingcourse.controller;
+
+import com.example.springboottestingcourse.dto.EmployeeBatchResult;
+import com.example.springboottestingcourse.dto.EmployeeImportReport;
+import com.example.springboottestingcourse.exception.BadRequestException;
+import com.example.springboottestingcourse.service.EmployeeImportService;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeImportController.class)
+public class EmployeeImportControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeImportService employeeImportService;
+
+    private static final String URL = "/api/v1/employees/import";
+
+    @DisplayName("JUnit test to import employees from a csv upload endpoint")
+    @Test
+    public void givenCsvUpload_whenImportEmployees_thenReturnReport() throws Exception {
+
+        // given - precondition or setup
+
+        EmployeeImportReport report = new EmployeeImportReport(2, 1, 1, 0,
+                List.of(EmployeeBatchResult.duplicate(3, "an@gmail.com")), false);
+        given(employeeImportService.importEmployees(any(), eq(EmployeeImportService.Format.CSV))).willReturn(report);
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(post(URL)
+                .contentType("text/csv")
+                .content("firstname,lastname,email\nfirst,name,an@gmail.com\nfirst,name,an@gmail.com\n"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$.errors[0].index", CoreMatchers.is(3)))
+                .andExpect(jsonPath("$.errors[0].status", CoreMatchers.is("DUPLICATE")));
+    }
+
+    @DisplayName("JUnit test to import employees from a csv upload without the required columns endpoint")
+    @Test
+    public void givenMissingCsvColumns_whenImportEmployees_thenReturnBadRequest() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeImportService.importEmployees(any(), eq(EmployeeImportService.Format.CSV)))
+                .willThrow(new BadRequestException("CSV header must name the firstname, lastname and email columns"));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(post(URL)
+                .contentType("text/csv")
+                .content("firstname,lastname\nfirst,name\n"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @DisplayName("JUnit test to import employees from an ndjson upload endpoint")
+    @Test
+    public void givenNdjsonUpload_whenImportEmployees_thenReturnReport() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeImportService.importEmployees(any(), eq(EmployeeImportService.Format.NDJSON)))
+                .willReturn(new EmployeeImportReport(1, 1, 0, 0, List.of(), false));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(post(URL)
+                .contentType("application/x-ndjson")
+                .content("{\"firstname\":\"first\",\"lastname\":\"name\",\"email\":\"an@gmail.com\"}\n"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", CoreMatchers.is(1)));
+    }
+}
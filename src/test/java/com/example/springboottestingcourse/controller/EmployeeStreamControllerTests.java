@@ -0,0 +1,65 @@
+package com.example.springboottestingcourse.controller;
+
+import com.example.springboottestingcourse.service.EmployeeChangeBroadcaster;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Optional;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeStreamController.class)
+public class EmployeeStreamControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeChangeBroadcaster broadcaster;
+
+    private static final String URL = "/api/v1/employees/stream";
+
+    @DisplayName("JUnit test to subscribe to the employee change stream endpoint")
+    @Test
+    public void givenFreeSlot_whenSubscribe_thenStartEventStream() throws Exception {
+
+        // given - precondition or setup
+
+        given(broadcaster.subscribe()).willReturn(Optional.of(new SseEmitter()));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL).accept(MediaType.TEXT_EVENT_STREAM));
+
+        // then - verify the expected output
+
+        response.andExpect(request().asyncStarted());
+    }
+
+    @DisplayName("JUnit test to subscribe to the employee change stream endpoint when it is full")
+    @Test
+    public void givenSubscriberLimitReached_whenSubscribe_thenReturnServiceUnavailable() throws Exception {
+
+        // given - precondition or setup
+
+        given(broadcaster.subscribe()).willReturn(Optional.empty());
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL).accept(MediaType.TEXT_EVENT_STREAM));
+
+        // then - verify the expected output
+
+        response.andExpect(status().isServiceUnavailable());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.springboottestingcourse.controller;
+
+import com.example.springboottestingcourse.dto.EmployeeSuggestion;
+import com.example.springboottestingcourse.service.EmployeeSearchIndex;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EmployeeSuggestController.class)
+public class EmployeeSuggestControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    private static final String URL = "/api/v1/employees/suggest";
+
+    @DisplayName("JUnit test to suggest employees by prefix endpoint")
+    @Test
+    public void givenPrefix_whenSuggestEmployees_thenReturnSuggestions() throws Exception {
+
+        // given - precondition or setup
+
+        given(employeeSearchIndex.suggest("jo", 5))
+                .willReturn(List.of(new EmployeeSuggestion(1L, "John", "Smith", "jsmith@gmail.com")));
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL).param("q", "jo").param("limit", "5"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", CoreMatchers.is(1)))
+                .andExpect(jsonPath("$[0].email", CoreMatchers.is("jsmith@gmail.com")));
+    }
+}
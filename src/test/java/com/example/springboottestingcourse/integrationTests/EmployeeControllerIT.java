@@ -1,22 +1,44 @@
 package com.example.springboottestingcourse.integrationTests;
 
+import com.example.springboottestingcourse.exception.ResourceNotFoundException;
 import com.example.springboottestingcourse.model.Employee;
 import com.example.springboottestingcourse.repository.EmployeeRepository;
+import com.example.springboottestingcourse.service.EmployeeOutboxRelay;
+import com.example.springboottestingcourse.service.EmployeeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
 import org.hamcrest.CoreMatchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -38,6 +60,18 @@ public class EmployeeControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EmployeeOutboxRelay outboxRelay;
+
+    @LocalServerPort
+    private int port;
+
     private static final String URL= "/api/v1/employees";
 
     @BeforeEach
@@ -74,6 +108,49 @@ public class EmployeeControllerIT {
     }
 
 
+    @DisplayName("JUnit test to create employees with the same email from many threads")
+    @Test
+    public void givenSameEmail_whenCreatingEmployeesConcurrently_thenOnlyOneIsSaved() throws Exception {
+
+        // given - precondition or setup
+
+        int threads = 16;
+        int attempts = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when - action that will be tested
+
+        for (int i = 0; i < attempts; i++) {
+            Employee employee = Employee.builder().firstname("first" + i)
+                    .lastname("last").email("same@gmail.com").build();
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    employeeService.saveEmployee(employee);
+                    created.incrementAndGet();
+                } catch (ResourceNotFoundException e) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // then - verify the expected output
+
+        assertThat(created.get()).isEqualTo(1);
+        assertThat(conflicts.get()).isEqualTo(attempts - 1);
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+
+
     @DisplayName("JUnit test to get all employees endpoint")
     @Test
     public void given_whenGetAllEmployees_thenReturnEmployeesList() throws Exception {
@@ -183,6 +260,317 @@ public class EmployeeControllerIT {
                         CoreMatchers.is(updatedEmployee.getEmail())));
     }
 
+    @DisplayName("JUnit test to get selected fields of all employees endpoint")
+    @Test
+    public void givenFields_whenGetAllEmployees_thenReturnOnlySelectedFields() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().firstname("first")
+                .lastname("last").email("adndf@gmail.com").build();
+
+        employeeRepository.save(employee);
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get(URL).param("fields", "id,email"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id", CoreMatchers.is((int) employee.getId())))
+                .andExpect(jsonPath("$.content[0].email", CoreMatchers.is(employee.getEmail())))
+                .andExpect(jsonPath("$.content[0].firstname").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @DisplayName("JUnit test to suggest employees created, patched and deleted through the api endpoint")
+    @Test
+    public void givenWritesThroughApi_whenSuggestEmployees_thenIndexFollowsCommittedState() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = employeeService.saveEmployee(Employee.builder().firstname("Typeahead")
+                .lastname("last").email("typeahead@gmail.com").build());
+
+        // when - action that will be tested
+
+        ResultActions created = mockMvc.perform(get(URL + "/suggest").param("q", "typea"));
+        mockMvc.perform(patch(URL + "/{id}", employee.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"firstname\":\"Renamed\"}"))
+                .andExpect(status().isOk());
+        ResultActions patched = mockMvc.perform(get(URL + "/suggest").param("q", "renam"));
+        mockMvc.perform(delete(URL + "/{id}", employee.getId())).andExpect(status().isOk());
+        ResultActions deleted = mockMvc.perform(get(URL + "/suggest").param("q", "typeahead@"));
+
+        // then - verify the expected output
+
+        created.andExpect(jsonPath("$[0].id", CoreMatchers.is((int) employee.getId())));
+        patched.andExpect(jsonPath("$[0].firstname", CoreMatchers.is("Renamed")));
+        deleted.andExpect(jsonPath("$.size()", CoreMatchers.is(0)));
+    }
+
+    @DisplayName("JUnit test to follow creates, updates and deletes through the change feed endpoint")
+    @Test
+    public void givenWritesThroughApi_whenRelayOutbox_thenChangeFeedHasThemInOrder() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = employeeService.saveEmployee(Employee.builder().firstname("Outbox")
+                .lastname("last").email("outbox@gmail.com").build());
+
+        // when - action that will be tested
+
+        mockMvc.perform(put(URL + "/{id}", employee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder().firstname("Outbox")
+                                .lastname("renamed").email("outbox@gmail.com").build())))
+                .andExpect(status().isOk());
+        // the second patch changes nothing and must not show up in the feed
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(patch(URL + "/{id}", employee.getId())
+                            .contentType("application/merge-patch+json")
+                            .content("{\"firstname\":\"Patched\"}"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(delete(URL + "/{id}", employee.getId())).andExpect(status().isOk());
+        outboxRelay.relay();
+        ResultActions response = mockMvc.perform(get(URL + "/changes").param("limit", "1000"));
+
+        // then - verify the expected output
+
+        String changes = "$.content[?(@.employeeId == " + employee.getId() + ")]";
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath(changes + ".type", CoreMatchers.is(List.of("SAVED", "SAVED", "SAVED", "DELETED"))))
+                .andExpect(jsonPath(changes + ".employee.lastname", CoreMatchers.is(List.of("last", "renamed", "renamed"))))
+                // the put is a blind overwrite that does not learn its version, the patch after it reads version 1
+                .andExpect(jsonPath(changes + ".employee.version", CoreMatchers.hasItems(0, 2)))
+                .andExpect(jsonPath(changes + ".employee.updatedAt", CoreMatchers.everyItem(CoreMatchers.notNullValue())));
+    }
+
+    @DisplayName("JUnit test to receive a created employee on the server-sent event stream endpoint")
+    @Test
+    public void givenStreamSubscriber_whenCreateEmployee_thenSavedEventIsPushed() throws Exception {
+
+        // given - precondition or setup
+
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<Stream<String>> stream = client.send(HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + URL + "/stream"))
+                    .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE).build(),
+                    HttpResponse.BodyHandlers.ofLines());
+
+            // when - action that will be tested
+
+            mockMvc.perform(post(URL).contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(Employee.builder().firstname("Stream")
+                                    .lastname("last").email("stream@gmail.com").build())))
+                    .andExpect(status().isCreated());
+
+            // then - verify the expected output
+
+            CompletableFuture<Optional<String>> pushed = CompletableFuture.supplyAsync(() -> stream.body()
+                    .filter(line -> line.startsWith("data:") && line.contains("stream@gmail.com")).findFirst());
+            assertThat(pushed.get(10, TimeUnit.SECONDS)).hasValueSatisfying(line ->
+                    assertThat(line).contains("\"firstname\":\"Stream\""));
+            stream.body().close();
+        }
+    }
+
+    @DisplayName("JUnit test to import employees from a csv upload endpoint")
+    @Test
+    public void givenCsvUpload_whenImportEmployees_thenCreateNewAndReportDuplicates() throws Exception {
+
+        // given - precondition or setup
+
+        employeeRepository.save(Employee.builder().firstname("first")
+                .lastname("last").email("taken@gmail.com").build());
+        String csv = """
+                firstname,lastname,email
+                first,one,one@gmail.com
+                first,taken,taken@gmail.com
+                first,two,two@gmail.com
+                first,again,one@gmail.com
+                """;
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(post(URL + "/import")
+                .contentType("text/csv")
+                .content(csv));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows", CoreMatchers.is(4)))
+                .andExpect(jsonPath("$.created", CoreMatchers.is(2)))
+                .andExpect(jsonPath("$.duplicates", CoreMatchers.is(2)));
+        assertThat(employeeRepository.findAll()).hasSize(3);
+    }
+
+    @DisplayName("JUnit test to revalidate an employee with its etag")
+    @Test
+    public void givenETag_whenEmployeeChanges_thenRevalidationReturnsNewVersion() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().firstname("first")
+                .lastname("last").email("adndf@gmail.com").build();
+
+        employeeRepository.save(employee);
+        String etag = mockMvc.perform(get(URL + "/{id}", employee.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // when - action that will be tested
+
+        ResultActions unchanged = mockMvc.perform(get(URL + "/{id}", employee.getId()).header("If-None-Match", etag));
+        mockMvc.perform(patch(URL + "/{id}", employee.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"firstname\":\"first patched\"}"))
+                .andExpect(status().isOk());
+        ResultActions changed = mockMvc.perform(get(URL + "/{id}", employee.getId()).header("If-None-Match", etag));
+
+        // then - verify the expected output
+
+        unchanged.andExpect(status().isNotModified());
+        changed.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", CoreMatchers.not(etag)))
+                .andExpect(jsonPath("$.firstname", CoreMatchers.is("first patched")));
+    }
+
+    @DisplayName("JUnit test to update employee endpoint with two writers holding the same etag")
+    @Test
+    public void givenSameIfMatch_whenUpdatingTwice_thenSecondWriterGetsPreconditionFailed() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().firstname("first")
+                .lastname("last").email("adndf@gmail.com").build();
+        Employee firstWrite = Employee.builder().firstname("first writer")
+                .lastname("last").email("adndf@gmail.com").build();
+        Employee secondWrite = Employee.builder().firstname("second writer")
+                .lastname("last").email("adndf@gmail.com").build();
+
+        employeeRepository.save(employee);
+        String etag = mockMvc.perform(get(URL + "/{id}", employee.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // when - action that will be tested
+
+        ResultActions first = mockMvc.perform(put(URL + "/{id}", employee.getId())
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(firstWrite)));
+        ResultActions second = mockMvc.perform(put(URL + "/{id}", employee.getId())
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(secondWrite)));
+
+        // then - verify the expected output
+
+        first.andExpect(status().isOk());
+        second.andDo(print())
+                .andExpect(status().isPreconditionFailed());
+        assertThat(employeeRepository.findById(employee.getId()).get().getFirstname()).isEqualTo("first writer");
+    }
+
+    @DisplayName("JUnit test to search employees endpoint from the query cache until an update invalidates it")
+    @Test
+    public void givenCachedSearch_whenUpdateEmployee_thenCachedResultsAreInvalidated() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = employeeService.saveEmployee(Employee.builder().firstname("Cached")
+                .lastname("last").email("cached@gmail.com").build());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        mockMvc.perform(get(URL + "/search").param("firstname", "Cached").param("lastname", "last"));
+
+        // when - action that will be tested
+
+        long hits = statistics.getQueryCacheHitCount();
+        mockMvc.perform(get(URL + "/search").param("firstname", "Cached").param("lastname", "last"));
+        long hitsAfterRepeat = statistics.getQueryCacheHitCount();
+        mockMvc.perform(put(URL + "/{id}", employee.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder().firstname("Cached")
+                                .lastname("last").email("recached@gmail.com").build())))
+                .andExpect(status().isOk());
+        ResultActions response = mockMvc.perform(get(URL + "/search").param("firstname", "Cached").param("lastname", "last"));
+
+        // then - verify the expected output
+
+        assertThat(hitsAfterRepeat).isEqualTo(hits + 1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hitsAfterRepeat);
+        response.andExpect(jsonPath("$[0].email", CoreMatchers.is("recached@gmail.com")));
+        assertThat(employeeRepository.findById(employee.getId())).get()
+                .extracting(Employee::getEmail).isEqualTo("recached@gmail.com");
+    }
+
+    @DisplayName("JUnit test to bulk delete employees by name endpoint and purge them")
+    @Test
+    public void givenEmployeesWithName_whenBulkDeleteAndPurge_thenHiddenAtOnceAndEmailFreedAfterPurge() throws Exception {
+
+        // given - precondition or setup
+
+        Employee deleted = employeeService.saveEmployee(Employee.builder().firstname("Bulk")
+                .lastname("delete").email("bulk1@gmail.com").build());
+        employeeService.saveEmployee(Employee.builder().firstname("Bulk")
+                .lastname("delete").email("bulk2@gmail.com").build());
+        Employee kept = employeeService.saveEmployee(Employee.builder().firstname("Bulk")
+                .lastname("keep").email("bulk3@gmail.com").build());
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(delete(URL).param("firstname", "Bulk").param("lastname", "delete"));
+
+        // then - verify the expected output
+
+        response.andExpect(status().isOk()).andExpect(jsonPath("$.deleted", CoreMatchers.is(2)));
+        // only the flagged rows are invalidated in the second-level cache, the rest of the region stays
+        assertThat(entityManagerFactory.getCache().contains(Employee.class, kept.getId())).isTrue();
+        mockMvc.perform(get(URL + "/{id}", deleted.getId())).andExpect(status().isNotFound());
+        mockMvc.perform(get(URL + "/{id}", kept.getId())).andExpect(status().isOk());
+        assertThat(employeeService.purgeDeletedEmployees(1)).isEqualTo(1);
+        assertThat(employeeService.purgeDeletedEmployees(10)).isEqualTo(1);
+        mockMvc.perform(post(URL).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Employee.builder().firstname("Bulk")
+                                .lastname("again").email("bulk1@gmail.com").build())))
+                .andExpect(status().isCreated());
+    }
+
+    @DisplayName("JUnit test to patch employee endpoint")
+    @Test
+    public void givenMergePatch_whenPatchEmployee_thenOtherFieldsAreKept() throws Exception {
+
+        // given - precondition or setup
+
+        Employee employee = Employee.builder().firstname("first")
+                .lastname("last").email("adndf@gmail.com").build();
+
+        employeeRepository.save(employee);
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(patch(URL + "/{id}", employee.getId())
+                .contentType("application/merge-patch+json")
+                .content("{\"lastname\":\"last patched\"}"));
+
+        // then - verify the expected output
+
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastname", CoreMatchers.is("last patched")));
+        Employee patchedEmployee = employeeRepository.findById(employee.getId()).get();
+        assertThat(patchedEmployee.getFirstname()).isEqualTo("first");
+        assertThat(patchedEmployee.getLastname()).isEqualTo("last patched");
+        assertThat(patchedEmployee.getEmail()).isEqualTo("adndf@gmail.com");
+    }
+
     @Test
     public void deleteEmployee_Success() throws Exception {
         Long id = 1L;
@@ -0,0 +1,48 @@
+package com.example.springboottestingcourse.integrationTests;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// metrics export is switched off in tests unless asked for, @AutoConfigureObservability turns prometheus back on
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class PrometheusMetricsIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DisplayName("JUnit test to scrape request histograms, pool and hibernate meters from the prometheus endpoint")
+    @Test
+    public void givenServedRequest_whenScrapePrometheus_thenExposeRequestBucketsPoolAndHibernateMeters() throws Exception {
+
+        // given - precondition or setup
+
+        mockMvc.perform(get("/api/v1/employees")).andExpect(status().isOk());
+
+        // when - action that will be tested
+
+        ResultActions response = mockMvc.perform(get("/actuator/prometheus"));
+
+        // then - verify the expected output
+
+        response.andExpect(status().isOk())
+                .andExpect(content().string(CoreMatchers.containsString(
+                        "http_server_requests_seconds_bucket{error=\"none\",exception=\"none\",method=\"GET\"")))
+                .andExpect(content().string(CoreMatchers.containsString("uri=\"/api/v1/employees\"")))
+                .andExpect(content().string(CoreMatchers.containsString("hikaricp_connections_acquire_seconds")))
+                .andExpect(content().string(CoreMatchers.containsString("hibernate_sessions_open_total")))
+                .andExpect(content().string(CoreMatchers.containsString("spring_data_repository_invocations_seconds")));
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.springboottestingcourse.integrationTests;
+
+import com.example.springboottestingcourse.SpringBootTestingCourseApplication;
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.service.EmployeeService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/*
+    load test of how the two servlet thread modes schedule blocking requests, not of the application's reads.
+    EmployeeService is replaced by a mock that sleeps or holds a pooled connection for BLOCKING_MILLIS, so no
+    repository, query or entity mapping runs and the numbers only say how many parked requests each mode keeps
+    in flight. the real read path is measured by the jmh benchmarks of the benchmark profile
+ */
+@Slf4j
+public class ThreadModeLoadIT {
+
+    private static final long BLOCKING_MILLIS = 100;
+    private static final int CONCURRENCY = 1000;
+    private static final int REQUESTS = 5000;
+
+    // a second of queueing for the 20 connections, well inside hikari's connection-timeout of 5s
+    private static final int POOL_CONCURRENCY = 200;
+
+    @DisplayName("Load test showing that virtual threads keep more sleeping requests in flight than tomcat's platform threads")
+    @Test
+    public void givenSleepingStubService_whenLoadingBothThreadModes_thenVirtualThreadsServeMoreRequests() throws Exception {
+
+        // when - action that will be tested
+
+        double platformThroughput = measureThroughput(false);
+        double virtualThroughput = measureThroughput(true);
+
+        log.info("sleeping stub service, platform threads: {} req/s, virtual threads: {} req/s", Math.round(platformThroughput),
+                Math.round(virtualThroughput));
+
+        // then - verify the expected output
+
+        // tomcat's 200 platform threads cap the in flight requests, virtual threads are only capped by the load
+        assertThat(virtualThroughput).isGreaterThan(platformThroughput);
+    }
+
+    @DisplayName("Load test showing that with virtual threads the connection pool bounds the requests holding a connection")
+    @Test
+    public void givenVirtualThreadsAndConnectionHoldingStub_whenMoreRequestsThanConnections_thenRequestsQueueForThePool() throws Exception {
+
+        // given - precondition or setup
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                SpringBootTestingCourseApplication.class, ConnectionHoldingServiceConfig.class)
+                .properties("server.port=0", "spring.threads.virtual.enabled=true", "spring.jpa.show-sql=false")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/v1/employees/1");
+            HikariDataSource dataSource = context.getBean(HikariDataSource.class);
+            AtomicInteger maxActive = new AtomicInteger();
+            AtomicInteger maxWaiting = new AtomicInteger();
+
+            // when - action that will be tested
+
+            try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                 ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                Future<?> sampler = executor.submit(() -> {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+                        maxActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+                        maxWaiting.accumulateAndGet(pool.getThreadsAwaitingConnection(), Math::max);
+                        Thread.sleep(5);
+                    }
+                    return null;
+                });
+                send(client, uri, executor, POOL_CONCURRENCY * 2, POOL_CONCURRENCY);
+                sampler.cancel(true);
+            }
+
+            // then - verify the expected output
+
+            // every request got a 200 in send, the ones beyond the pool waited for a connection instead of failing
+            assertThat(maxActive.get()).isEqualTo(dataSource.getMaximumPoolSize());
+            assertThat(maxWaiting.get()).isPositive();
+        }
+    }
+
+    private double measureThroughput(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                SpringBootTestingCourseApplication.class, SleepingServiceConfig.class)
+                .properties("server.port=0", "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.jpa.show-sql=false")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/v1/employees/1");
+
+            try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                 ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                // warm up the connector and the connection pool of the client
+                send(client, uri, executor, CONCURRENCY, CONCURRENCY);
+
+                long start = System.nanoTime();
+                send(client, uri, executor, REQUESTS, CONCURRENCY);
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                return REQUESTS / seconds;
+            }
+        }
+    }
+
+    private static void send(HttpClient client, URI uri, ExecutorService executor, int requests, int concurrency) throws Exception {
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<Future<Integer>> responses = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            responses.add(executor.submit(() -> {
+                try {
+                    return client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        }
+        for (Future<Integer> response : responses)
+            assertThat(response.get()).isEqualTo(200);
+    }
+
+    // sleeps for BLOCKING_MILLIS per request without touching the database
+    @Configuration
+    static class SleepingServiceConfig {
+
+        @Bean
+        @Primary
+        EmployeeService sleepingEmployeeService() {
+            EmployeeService employeeService = mock(EmployeeService.class);
+            Employee employee = Employee.builder().id(1L).firstname("first")
+                    .lastname("last").email("adndf@gmail.com").build();
+            given(employeeService.getEmployeeById(1L)).willAnswer(invocation -> {
+                Thread.sleep(BLOCKING_MILLIS);
+                return Optional.of(employee);
+            });
+            return employeeService;
+        }
+    }
+
+    // holds a pooled connection for BLOCKING_MILLIS per request, standing in for a slow query
+    @Configuration
+    static class ConnectionHoldingServiceConfig {
+
+        @Bean
+        @Primary
+        EmployeeService connectionHoldingEmployeeService(PlatformTransactionManager transactionManager,
+                                                         JdbcTemplate jdbcTemplate) {
+            EmployeeService employeeService = mock(EmployeeService.class);
+            Employee employee = Employee.builder().id(1L).firstname("first")
+                    .lastname("last").email("adndf@gmail.com").build();
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            given(employeeService.getEmployeeById(1L)).willAnswer(invocation -> transaction.execute(status -> {
+                jdbcTemplate.queryForObject("select 1", Integer.class);
+                try {
+                    Thread.sleep(BLOCKING_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Optional.of(employee);
+            }));
+            return employeeService;
+        }
+    }
+}
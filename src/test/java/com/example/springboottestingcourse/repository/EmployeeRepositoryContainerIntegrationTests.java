@@ -151,7 +151,7 @@ public class EmployeeRepositoryContainerIntegrationTests extends AbstractionBase
 
         // when - action that will be tested
 
-        Employee employeeDB = employeeRepository.findByJPQL(firstName, lastName);
+        Employee employeeDB = employeeRepository.findByJPQL(firstName, lastName).getFirst();
 
         // then - the expected output
 
@@ -171,7 +171,7 @@ public class EmployeeRepositoryContainerIntegrationTests extends AbstractionBase
         employeeRepository.save(employee);
 
         // when - action that will be tested
-        Employee employeeDB = employeeRepository.findByJPQLNamedParams(firstName, lastName);
+        Employee employeeDB = employeeRepository.findByJPQLNamedParams(firstName, lastName).getFirst();
 
         // then - the expected output
         assertThat(employeeDB).isNotNull();
@@ -190,7 +190,7 @@ public class EmployeeRepositoryContainerIntegrationTests extends AbstractionBase
         employeeRepository.save(employee);
 
         // when - action that will be tested
-        Employee employeeDB = employeeRepository.findByNativeSQLWithIndexPrams(firstName, lastName);
+        Employee employeeDB = employeeRepository.findByNativeSQLWithIndexPrams(firstName, lastName).getFirst();
 
         // then - the expected output
         assertThat(employeeDB).isNotNull();
@@ -209,7 +209,7 @@ public class EmployeeRepositoryContainerIntegrationTests extends AbstractionBase
         employeeRepository.save(employee);
 
         // when - action that will be tested
-        Employee employeeDB = employeeRepository.findByNativeSQLWithNamedPrams(firstName, lastName);
+        Employee employeeDB = employeeRepository.findByNativeSQLWithNamedPrams(firstName, lastName).getFirst();
 
         // then - the expected output
         assertThat(employeeDB).isNotNull();
@@ -150,7 +150,7 @@ public class EmployeeRepositoryIT {
 
         // when - action that will be tested
 
-        Employee employeeDB = employeeRepository.findByJPQL(firstName, lastName);
+        Employee employeeDB = employeeRepository.findByJPQL(firstName, lastName).getFirst();
 
         // then - the expected output
 
@@ -170,7 +170,7 @@ public class EmployeeRepositoryIT {
         employeeRepository.save(employee);
 
         // when - action that will be tested
-        Employee employeeDB = employeeRepository.findByJPQLNamedParams(firstName, lastName);
+        Employee employeeDB = employeeRepository.findByJPQLNamedParams(firstName, lastName).getFirst();
 
         // then - the expected output
         assertThat(employeeDB).isNotNull();
@@ -189,7 +189,7 @@ public class EmployeeRepositoryIT {
         employeeRepository.save(employee);
 
         // when - action that will be tested
-        Employee employeeDB = employeeRepository.findByNativeSQLWithIndexPrams(firstName, lastName);
+        Employee employeeDB = employeeRepository.findByNativeSQLWithIndexPrams(firstName, lastName).getFirst();
 
         // then - the expected output
         assertThat(employeeDB).isNotNull();
@@ -208,7 +208,7 @@ public class EmployeeRepositoryIT {
         employeeRepository.save(employee);
 
         // when - action that will be tested
-        Employee employeeDB = employeeRepository.findByNativeSQLWithNamedPrams(firstName, lastName);
+        Employee employeeDB = employeeRepository.findByNativeSQLWithNamedPrams(firstName, lastName).getFirst();
 
         // then - the expected output
         assertThat(employeeDB).isNotNull();
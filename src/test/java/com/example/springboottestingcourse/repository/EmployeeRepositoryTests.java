@@ -1,16 +1,26 @@
 package com.example.springboottestingcourse.repository;
 
+import com.example.springboottestingcourse.dto.EmployeeName;
+import com.example.springboottestingcourse.dto.EmployeeVersion;
+import com.example.springboottestingcourse.dto.EmployeeView;
+import com.example.springboottestingcourse.dto.EmployeesVersion;
 import com.example.springboottestingcourse.model.Employee;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @DataJpaTest    // this will only load @Repository classes and do tests with H2 in memory DB
 public class EmployeeRepositoryTests {
@@ -18,6 +28,9 @@ public class EmployeeRepositoryTests {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     Employee employee;
 
     @BeforeEach
@@ -148,7 +161,7 @@ public class EmployeeRepositoryTests {
 
         // when - action that will be tested
 
-        Employee employeeDB = employeeRepository.findByJPQL(firstName, lastName);
+        Employee employeeDB = employeeRepository.findByJPQL(firstName, lastName).getFirst();
 
         // then - the expected output
 
@@ -168,7 +181,7 @@ public class EmployeeRepositoryTests {
         employeeRepository.save(employee);
 
         // when - action that will be tested
-        Employee employeeDB = employeeRepository.findByJPQLNamedParams(firstName, lastName);
+        Employee employeeDB = employeeRepository.findByJPQLNamedParams(firstName, lastName).getFirst();
 
         // then - the expected output
         assertThat(employeeDB).isNotNull();
@@ -187,7 +200,7 @@ public class EmployeeRepositoryTests {
         employeeRepository.save(employee);
 
         // when - action that will be tested
-        Employee employeeDB = employeeRepository.findByNativeSQLWithIndexPrams(firstName, lastName);
+        Employee employeeDB = employeeRepository.findByNativeSQLWithIndexPrams(firstName, lastName).getFirst();
 
         // then - the expected output
         assertThat(employeeDB).isNotNull();
@@ -206,7 +219,7 @@ public class EmployeeRepositoryTests {
         employeeRepository.save(employee);
 
         // when - action that will be tested
-        Employee employeeDB = employeeRepository.findByNativeSQLWithNamedPrams(firstName, lastName);
+        Employee employeeDB = employeeRepository.findByNativeSQLWithNamedPrams(firstName, lastName).getFirst();
 
         // then - the expected output
         assertThat(employeeDB).isNotNull();
@@ -214,4 +227,230 @@ public class EmployeeRepositoryTests {
         assertThat(employeeDB.getLastname()).isEqualTo(lastName);
     }
 
+    @DisplayName("JUnit test for getting a keyset page of employees after an id")
+    @Test
+    public void givenEmployees_whenFindingPageAfterId_thenReturnNextEmployeesInIdOrder() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder().firstname("second")
+                .lastname("test").email("an2@gmail.com").build();
+        Employee employee3 = Employee.builder().firstname("third")
+                .lastname("test").email("an3@gmail.com").build();
+        employeeRepository.saveAll(List.of(employee, employee2, employee3));
+
+        // when - action that will be tested
+        List<Employee> page = employeeRepository.findPageAfter(employee.getId(), Limit.of(1));
+
+        // then - the expected output
+        assertThat(page).hasSize(1);
+        assertThat(page.getFirst().getId()).isEqualTo(employee2.getId());
+    }
+
+    @DisplayName("JUnit test for reading the employee read model")
+    @Test
+    public void givenEmployees_whenFindingViews_thenReturnReadModelInIdOrder() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder().firstname("second")
+                .lastname("test").email("an2@gmail.com").build();
+        Employee employee3 = Employee.builder().firstname(employee.getFirstname())
+                .lastname(employee.getLastname()).email("an3@gmail.com").build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee2, employee3));
+
+        // when - action that will be tested
+        List<EmployeeView> all = employeeRepository.findAllViews();
+        List<EmployeeView> page = employeeRepository.findViewPageAfter(employee.getId(), Limit.of(1));
+        List<EmployeeView> byName = employeeRepository.findViewsByName(employee.getFirstname(), employee.getLastname());
+
+        // then - the expected output
+        assertThat(all).extracting(EmployeeView::id)
+                .containsExactly(employee.getId(), employee2.getId(), employee3.getId());
+        assertThat(all.getFirst().email()).isEqualTo(employee.getEmail());
+        assertThat(all.getFirst().updatedAt()).isNotNull();
+        assertThat(page).extracting(EmployeeView::id).containsExactly(employee2.getId());
+        assertThat(byName).extracting(EmployeeView::email).containsExactly(employee.getEmail(), "an3@gmail.com");
+    }
+
+    @DisplayName("JUnit test for selecting only some employee fields")
+    @Test
+    public void givenEmployees_whenFindingFields_thenReturnOnlySelectedColumns() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder().firstname("second")
+                .lastname("test").email("an2@gmail.com").build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee2));
+
+        // when - action that will be tested
+        List<Map<String, Object>> rows = employeeRepository.findFields(List.of("email", "id"),
+                (root, query, builder) -> builder.greaterThan(root.get("id"), employee.getId()), Limit.of(10));
+
+        // then - the expected output
+        assertThat(rows).containsExactly(Map.of("email", "an2@gmail.com", "id", employee2.getId()));
+        assertThat(rows.getFirst().keySet()).containsExactly("email", "id");
+    }
+
+    @DisplayName("JUnit test for streaming all employees")
+    @Test
+    public void givenEmployees_whenStreamingAll_thenReturnEveryEmployee() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder().firstname("second")
+                .lastname("test").email("an2@gmail.com").build();
+        employeeRepository.saveAll(List.of(employee, employee2));
+
+        // when - action that will be tested
+        List<Employee> employees;
+        try (Stream<Employee> stream = employeeRepository.streamAll()) {
+            employees = stream.toList();
+        }
+
+        // then - the expected output
+        assertThat(employees).hasSize(2);
+    }
+
+    @DisplayName("JUnit test for finding which emails are already taken")
+    @Test
+    public void givenSavedEmployee_whenFindingExistingEmails_thenReturnOnlyTakenEmails() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+
+        // when - action that will be tested
+        Set<String> existing = employeeRepository.findExistingEmails(List.of("an@gmail.com", "free@gmail.com"));
+
+        // then - the expected output
+        assertThat(existing).containsExactly("an@gmail.com");
+    }
+
+    @DisplayName("JUnit test for getting every employee sharing the same first and last names")
+    @Test
+    public void givenEmployeesWithSameNames_whenUsingJPQLQuery_thenReturnAllMatches() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder().firstname("first")
+                .lastname("test").email("an2@gmail.com").build();
+        employeeRepository.saveAll(List.of(employee, employee2));
+
+        // when - action that will be tested
+        List<Employee> employees = employeeRepository.findByJPQL("first", "test");
+
+        // then - the expected output
+        assertThat(employees).hasSize(2);
+    }
+
+    @DisplayName("JUnit test for getting the name projection of employees by first and last names")
+    @Test
+    public void givenFirstAndLastNames_whenFindingNames_thenReturnProjection() {
+        // given - precondition or setup
+        employeeRepository.save(employee);
+
+        // when - action that will be tested
+        List<EmployeeName> names = employeeRepository.findNamesByName("first", "test");
+
+        // then - the expected output
+        assertThat(names).containsExactly(new EmployeeName(employee.getId(), "first", "test"));
+    }
+
+    @DisplayName("JUnit test for updating employee with a single update statement")
+    @Test
+    public void givenEmployeeId_whenUpdatingById_thenRowIsOverwritten() {
+        // given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        // when - action that will be tested
+        Instant now = Instant.now();
+        int updated = employeeRepository.updateById(employee.getId(), "updatedFirst", "updatedLast", "updated@gmail.com", now);
+        int missing = employeeRepository.updateById(employee.getId() + 1000, "updatedFirst", "updatedLast", "other@gmail.com", now);
+
+        // then - the expected output
+        Employee updatedEmployee = employeeRepository.findById(employee.getId()).get();
+        assertThat(updated).isEqualTo(1);
+        assertThat(missing).isEqualTo(0);
+        assertThat(updatedEmployee.getFirstname()).isEqualTo("updatedFirst");
+        assertThat(updatedEmployee.getEmail()).isEqualTo("updated@gmail.com");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for soft deleting employees with a single update statement")
+    @Test
+    public void givenLiveAndDeletedEmployees_whenSoftDeletingByIds_thenFlagOnlyLiveOnes() {
+        // given - precondition or setup
+        Employee deletedBefore = Employee.builder().firstname("second")
+                .lastname("test").email("second@gmail.com").build();
+        employeeRepository.saveAndFlush(employee);
+        employeeRepository.saveAndFlush(deletedBefore);
+        employeeRepository.softDeleteByIds(List.of(deletedBefore.getId()), Instant.parse("2024-01-01T00:00:00Z"));
+
+        // when - action that will be tested
+        Instant deletedAt = Instant.parse("2024-02-01T00:00:00Z");
+        int flagged = employeeRepository.softDeleteByIds(List.of(employee.getId(), deletedBefore.getId(), employee.getId() + 1000),
+                deletedAt);
+
+        // then - the expected output
+        assertThat(flagged).isEqualTo(1);
+        assertThat(employeeRepository.findIdsDeletedAt(List.of(employee.getId(), deletedBefore.getId()), deletedAt))
+                .containsExactly(employee.getId());
+        assertThat(employeeRepository.findById(employee.getId())).isEmpty();
+    }
+
+    @DisplayName("JUnit test for reading the validators of one employee")
+    @Test
+    public void givenEmployeeObj_whenFindVersionById_thenReturnVersionAndTimestamp() {
+        // given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+
+        // when - action that will be tested
+        Optional<EmployeeVersion> version = employeeRepository.findVersionById(employee.getId());
+
+        // then - the expected output
+        assertThat(version).isPresent();
+        assertThat(version.get().version()).isEqualTo(0);
+        assertThat(version.get().updatedAt()).isNotNull();
+        assertThat(employeeRepository.findVersionById(employee.getId() + 1000)).isEmpty();
+    }
+
+    @DisplayName("JUnit test for the collection version changing on every write")
+    @Test
+    public void givenEmployeeObjs_whenWriting_thenCollectionVersionChanges() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder().firstname("second")
+                .lastname("last").email("second@gmail.com").build();
+        employeeRepository.saveAndFlush(employee);
+        String initial = employeeRepository.findCollectionVersion().etag();
+
+        // when - action that will be tested
+        employeeRepository.saveAndFlush(employee2);
+        String afterInsert = employeeRepository.findCollectionVersion().etag();
+        employee.setFirstname("updatedFirst");
+        employeeRepository.saveAndFlush(employee);
+        String afterUpdate = employeeRepository.findCollectionVersion().etag();
+        employeeRepository.deleteById(employee.getId());
+        employeeRepository.flush();
+        String afterDelete = employeeRepository.findCollectionVersion().etag();
+
+        // then - the expected output
+        assertThat(List.of(initial, afterInsert, afterUpdate, afterDelete)).doesNotHaveDuplicates();
+    }
+
+    @DisplayName("JUnit test for the collection version changing when an insert below the highest id replaces a delete")
+    @Test
+    public void givenInsertBelowMaxIdAndDelete_whenReadingCollectionVersion_thenVersionChanges() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder().firstname("second")
+                .lastname("last").email("second@gmail.com").build();
+        employeeRepository.saveAndFlush(employee);
+        employeeRepository.saveAndFlush(employee2);
+        EmployeesVersion initial = employeeRepository.findCollectionVersion();
+
+        // when - action that will be tested
+        // another instance hands out ids from an older pooled block, here the id of the deleted row
+        employeeRepository.deleteById(employee.getId());
+        employeeRepository.flush();
+        entityManager.createNativeQuery("insert into employees (id, first_name, last_name, email, version, updated_at)"
+                        + " values (:id, 'third', 'last', 'third@gmail.com', 0, :updatedAt)")
+                .setParameter("id", employee.getId())
+                .setParameter("updatedAt", employee2.getUpdatedAt().plusMillis(1))
+                .executeUpdate();
+        EmployeesVersion afterReplace = employeeRepository.findCollectionVersion();
+
+        // then - the expected output
+        assertThat(afterReplace.count()).isEqualTo(initial.count());
+        assertThat(afterReplace.maxId()).isEqualTo(initial.maxId());
+        assertThat(afterReplace.versionSum()).isEqualTo(initial.versionSum());
+        assertThat(afterReplace.etag()).isNotEqualTo(initial.etag());
+    }
 }
@@ -0,0 +1,81 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.config.EmployeeAsyncProperties;
+import com.example.springboottestingcourse.dto.EmployeeView;
+import com.example.springboottestingcourse.service.impl.EmployeeAsyncServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeAsyncServiceTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeAsyncServiceImpl employeeAsyncService;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setup(){
+        employeeAsyncService = new EmployeeAsyncServiceImpl(employeeService,
+                new EmployeeAsyncProperties(1, 1, Duration.ofMillis(200)));
+    }
+
+    @AfterEach
+    public void tearDown(){
+        release.countDown();
+        employeeAsyncService.destroy();
+    }
+
+    @DisplayName("JUnit test for running a service call on the employee query pool")
+    @Test
+    public void givenEmployees_whenGetAllEmployeesAsync_thenCompleteWithTheServiceResult() {
+        // given - precondition or setup
+        List<EmployeeView> employees = List.of(new EmployeeView(1L, "John", "Smith", "jsmith@gmail.com", 0L, null));
+        given(employeeService.getAllEmployees()).willReturn(employees);
+
+        // when - action that will be tested
+        CompletableFuture<List<EmployeeView>> result = employeeAsyncService.getAllEmployees();
+
+        // then - the expected output
+        assertThat(result.join()).isEqualTo(employees);
+    }
+
+    @DisplayName("JUnit test for timing out a slow query and rejecting calls once the pool and queue are full")
+    @Test
+    public void givenSlowQueries_whenPoolIsSaturated_thenTimeOutAndReject() {
+        // given - precondition or setup
+        willAnswer(invocation -> {
+            release.await();
+            return List.of();
+        }).given(employeeService).getAllEmployees();
+
+        // when - action that will be tested
+        CompletableFuture<List<EmployeeView>> running = employeeAsyncService.getAllEmployees();
+        CompletableFuture<List<EmployeeView>> queued = employeeAsyncService.getAllEmployees();
+        CompletableFuture<List<EmployeeView>> rejected = employeeAsyncService.getAllEmployees();
+
+        // then - the expected output
+        assertThatThrownBy(rejected::join).hasCauseInstanceOf(TaskRejectedException.class);
+        assertThatThrownBy(running::join).hasCauseInstanceOf(TimeoutException.class);
+        assertThatThrownBy(queued::join).hasCauseInstanceOf(TimeoutException.class);
+    }
+}
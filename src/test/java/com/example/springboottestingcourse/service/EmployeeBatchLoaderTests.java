@@ -0,0 +1,121 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.config.EmployeeBatchLoaderProperties;
+import com.example.springboottestingcourse.config.ReplicaRoutingDataSource;
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeBatchLoaderTests {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeBatchLoader loader;
+
+    private final Employee first = Employee.builder().id(1L).firstname("John")
+            .lastname("Smith").email("jsmith@gmail.com").build();
+
+    private final Employee second = Employee.builder().id(2L).firstname("Jane")
+            .lastname("Doe").email("jdoe@gmail.com").build();
+
+    @AfterEach
+    public void tearDown(){
+        loader.destroy();
+    }
+
+    @DisplayName("JUnit test for loading the lookups of one window with a single query")
+    @Test
+    public void givenLookupsInOneWindow_whenLoad_thenQueryOnceAndShareDuplicateLookups() throws Exception {
+        // given - precondition or setup
+        loader = new EmployeeBatchLoader(employeeRepository,
+                new EmployeeBatchLoaderProperties(true, Duration.ofMillis(50), 10, 1));
+        given(employeeRepository.findAllById(List.of(1L, 2L, 3L))).willReturn(List.of(first, second));
+
+        // when - action that will be tested
+        CompletableFuture<Optional<Employee>> one = loader.load(1L);
+        CompletableFuture<Optional<Employee>> two = loader.load(2L);
+        CompletableFuture<Optional<Employee>> missing = loader.load(3L);
+        CompletableFuture<Optional<Employee>> oneAgain = loader.load(1L);
+
+        // then - the expected output
+        assertThat(oneAgain).isSameAs(one);
+        assertThat(one.get(5, TimeUnit.SECONDS)).contains(first);
+        assertThat(two.get(5, TimeUnit.SECONDS)).contains(second);
+        assertThat(missing.get(5, TimeUnit.SECONDS)).isEmpty();
+        verify(employeeRepository, never()).findById(any());
+    }
+
+    @DisplayName("JUnit test for loading a full batch without waiting for the window")
+    @Test
+    public void givenFullBatch_whenLoad_thenQueryAtOnce() {
+        // given - precondition or setup
+        loader = new EmployeeBatchLoader(employeeRepository,
+                new EmployeeBatchLoaderProperties(true, Duration.ofMinutes(1), 2, 1));
+        given(employeeRepository.findAllById(List.of(1L, 2L))).willReturn(List.of(first, second));
+
+        // when - action that will be tested
+        CompletableFuture<Optional<Employee>> one = loader.load(1L);
+        CompletableFuture<Optional<Employee>> two = loader.load(2L);
+
+        // then - the expected output
+        assertThat(one).isCompletedWithValue(Optional.of(first));
+        assertThat(two).isCompletedWithValue(Optional.of(second));
+    }
+
+    @DisplayName("JUnit test for loading on the primary so a lagging replica can not fill the caches")
+    @Test
+    public void givenCallerNotPinned_whenLoad_thenQueryPrimaryAndLeaveCallerUnpinned() {
+        // given - precondition or setup
+        loader = new EmployeeBatchLoader(employeeRepository,
+                new EmployeeBatchLoaderProperties(true, Duration.ofMinutes(1), 2, 1));
+        List<Boolean> pinned = new ArrayList<>();
+        given(employeeRepository.findAllById(List.of(1L, 2L))).willAnswer(invocation -> {
+            pinned.add(ReplicaRoutingDataSource.isPinnedToPrimary());
+            return List.of(first, second);
+        });
+
+        // when - action that will be tested
+        loader.load(1L);
+        loader.load(2L);
+
+        // then - the expected output
+        assertThat(pinned).containsExactly(true);
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+    }
+
+    @DisplayName("JUnit test for loading a lone lookup by primary key")
+    @Test
+    public void givenSingleLookup_whenFindById_thenUseFindById() {
+        // given - precondition or setup
+        loader = new EmployeeBatchLoader(employeeRepository,
+                new EmployeeBatchLoaderProperties(true, Duration.ofMillis(1), 10, 1));
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(first));
+
+        // when - action that will be tested
+        Optional<Employee> employee = loader.findById(1L);
+
+        // then - the expected output
+        assertThat(employee).contains(first);
+        verify(employeeRepository, never()).findAllById(any());
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.config.EmployeeStreamProperties;
+import com.example.springboottestingcourse.controller.EmployeeStreamController;
+import com.example.springboottestingcourse.model.Employee;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+public class EmployeeChangeBroadcasterTests {
+
+    private EmployeeChangeBroadcaster broadcaster;
+
+    @AfterEach
+    public void tearDown(){
+        broadcaster.destroy();
+    }
+
+    @DisplayName("JUnit test for sending only the latest change of an employee to a subscriber that is behind")
+    @Test
+    public void givenBusySubscriber_whenEmployeeChangesAgain_thenOnlyLatestChangeIsSent() throws Exception {
+        // given - precondition or setup
+        broadcaster = new EmployeeChangeBroadcaster(new EmployeeStreamProperties(10, 8, 1, Duration.ofMinutes(1), Duration.ofSeconds(10)));
+        RecordingEmitter emitter = new RecordingEmitter();
+        assertThat(broadcaster.register(emitter)).isTrue();
+        broadcaster.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1L, "John")));
+        assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when - action that will be tested
+        broadcaster.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1L, "Renamed")));
+        broadcaster.onEmployeeChanged(EmployeeChangedEvent.saved(employee(2L, "Jane")));
+        broadcaster.onEmployeeChanged(EmployeeChangedEvent.deleted(1L));
+        emitter.release.countDown();
+
+        // then - the expected output
+        List<String> events = emitter.awaitEvents(3);
+        assertThat(events).hasSize(3);
+        assertThat(events.get(0)).startsWith("event:saved").contains("John");
+        assertThat(events.get(1)).startsWith("event:deleted").contains("id=1");
+        assertThat(events.get(2)).startsWith("event:saved").contains("Jane");
+    }
+
+    @DisplayName("JUnit test for disconnecting a subscriber whose buffer overflows")
+    @Test
+    public void givenStalledSubscriber_whenBufferOverflows_thenSubscriberIsCompleted() throws Exception {
+        // given - precondition or setup
+        broadcaster = new EmployeeChangeBroadcaster(new EmployeeStreamProperties(10, 2, 1, Duration.ofMinutes(1), Duration.ofSeconds(10)));
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.register(emitter);
+        broadcaster.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1L, "John")));
+        assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when - action that will be tested
+        broadcaster.onEmployeeChanged(EmployeeChangedEvent.deleted(List.of(2L, 3L, 4L)));
+        emitter.release.countDown();
+
+        // then - the expected output
+        assertThat(broadcaster.subscriberCount()).isZero();
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitter.events).hasSize(1);
+    }
+
+    @DisplayName("JUnit test for freeing the sender from a subscriber whose send never returns")
+    @Test
+    public void givenClientThatStoppedReading_whenSendPassesDeadline_thenOtherSubscribersStillReceiveChanges() throws Exception {
+        // given - precondition or setup
+        broadcaster = new EmployeeChangeBroadcaster(new EmployeeStreamProperties(10, 8, 1, Duration.ofMinutes(1),
+                Duration.ofMillis(200)));
+        StallingConverter converter = new StallingConverter();
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new EmployeeStreamController(broadcaster))
+                .setMessageConverters(converter, new MappingJackson2HttpMessageConverter(new ObjectMapper().findAndRegisterModules()))
+                .build();
+        List<MvcResult> streams = List.of(subscribe(mockMvc), subscribe(mockMvc));
+        broadcaster.onEmployeeChanged(EmployeeChangedEvent.saved(employee(1L, "John")));
+        // the only sender thread is stuck in the real, synchronized send of whichever subscriber it drains first
+        assertThat(converter.stalling.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when - action that will be tested
+        broadcaster.onEmployeeChanged(EmployeeChangedEvent.saved(employee(2L, "Jane")));
+
+        // then - the expected output
+        MvcResult reading = awaitStreamWith(streams, "Jane", Duration.ofSeconds(2));
+        assertThat(reading.getResponse().getContentAsString()).contains("John", "Jane");
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+        // the stalled stream completes once its write gives up the emitter's lock
+        MvcResult stalled = streams.get(streams.indexOf(reading) ^ 1);
+        converter.release.countDown();
+        stalled.getAsyncResult(5000);
+        assertThat(stalled.getResponse().getContentAsString()).doesNotContain("Jane");
+    }
+
+    @DisplayName("JUnit test for rejecting subscribers over the limit")
+    @Test
+    public void givenFullBroadcaster_whenRegister_thenReject() {
+        // given - precondition or setup
+        broadcaster = new EmployeeChangeBroadcaster(new EmployeeStreamProperties(1, 8, 1, Duration.ofMinutes(1), Duration.ofSeconds(10)));
+        broadcaster.register(new RecordingEmitter());
+
+        // when - action that will be tested
+        boolean registered = broadcaster.register(new RecordingEmitter());
+
+        // then - the expected output
+        assertThat(registered).isFalse();
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+    }
+
+    private static Employee employee(Long id, String firstname) {
+        return Employee.builder().id(id).firstname(firstname).lastname("Smith").email(firstname + "@gmail.com").build();
+    }
+
+    private static MvcResult subscribe(MockMvc mockMvc) throws Exception {
+        return mockMvc.perform(get("/api/v1/employees/stream").accept(MediaType.TEXT_EVENT_STREAM)).andReturn();
+    }
+
+    private static MvcResult awaitStreamWith(List<MvcResult> streams, String expected, Duration timeout) throws Exception {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            for (MvcResult stream : streams) {
+                if (stream.getResponse().getContentAsString().contains(expected))
+                    return stream;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No stream received " + expected + " within " + timeout);
+    }
+
+    // writes the text parts of the events, those for the first stream written to block until release, like a client that stopped reading
+    private static class StallingConverter extends StringHttpMessageConverter {
+
+        final CountDownLatch stalling = new CountDownLatch(1);
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        private final AtomicReference<OutputStream> stalledBody = new AtomicReference<>();
+
+        @Override
+        protected void writeInternal(String text, HttpOutputMessage outputMessage) throws IOException {
+            OutputStream body = outputMessage.getBody();
+            if (stalledBody.compareAndSet(null, body) || stalledBody.get() == body) {
+                stalling.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            super.writeInternal(text, outputMessage);
+        }
+    }
+
+    // records the sent events as text, the first send waits for release so the test can pile up changes behind it
+    private static class RecordingEmitter extends SseEmitter {
+
+        final List<String> events = new CopyOnWriteArrayList<>();
+
+        final CountDownLatch sending = new CountDownLatch(1);
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(builder.build().stream().map(data -> String.valueOf(data.getData()))
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        List<String> awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline)
+                Thread.sleep(10);
+            return events;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.dto.EmployeeBatchResult;
+import com.example.springboottestingcourse.dto.EmployeeImportReport;
+import com.example.springboottestingcourse.exception.BadRequestException;
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.service.impl.EmployeeImportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeImportServiceTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeImportService employeeImportService;
+
+    // chunk sizes seen by saveEmployees, the list itself is reused for the next chunk
+    private final List<Integer> chunkSizes = new ArrayList<>();
+
+    @BeforeEach
+    public void setup(){
+        employeeImportService = new EmployeeImportServiceImpl(employeeService, new ObjectMapper());
+    }
+
+    @DisplayName("JUnit test for importing a csv upload")
+    @Test
+    public void givenCsvUpload_whenImporting_thenSaveRowsAndReportErrorsByLine() throws IOException {
+        // given - precondition or setup
+        String csv = """
+                email,firstname,lastname
+                an@gmail.com,first,name
+                "quoted, comma@gmail.com","first ""q\""",name
+                missing@gmail.com,first
+                taken@gmail.com,second,name
+                """;
+        givenSaveEmployeesMarksDuplicates("taken@gmail.com");
+
+        // when - action that will be tested
+        EmployeeImportReport report = employeeImportService.importEmployees(stream(csv), EmployeeImportService.Format.CSV);
+
+        // then - the expected output
+        assertThat(report.rows()).isEqualTo(4);
+        assertThat(report.created()).isEqualTo(2);
+        assertThat(report.duplicates()).isEqualTo(1);
+        assertThat(report.invalid()).isEqualTo(1);
+        assertThat(report.errors()).extracting(EmployeeBatchResult::index).containsExactlyInAnyOrder(4, 5);
+        assertThat(report.errorsTruncated()).isFalse();
+    }
+
+    @DisplayName("JUnit test for importing an ndjson upload in chunks")
+    @Test
+    public void givenLargeNdjsonUpload_whenImporting_thenSaveInChunks() throws IOException {
+        // given - precondition or setup
+        int rows = EmployeeImportService.IMPORT_CHUNK_SIZE * 2 + 1;
+        String ndjson = IntStream.range(0, rows)
+                .mapToObj(i -> "{\"firstname\":\"first" + i + "\",\"lastname\":\"last\",\"email\":\"e" + i + "@gmail.com\"}")
+                .collect(Collectors.joining("\n"));
+        givenSaveEmployeesMarksDuplicates();
+
+        // when - action that will be tested
+        EmployeeImportReport report = employeeImportService.importEmployees(stream(ndjson), EmployeeImportService.Format.NDJSON);
+
+        // then - the expected output
+        assertThat(report.created()).isEqualTo(rows);
+        assertThat(chunkSizes).containsExactly(EmployeeImportService.IMPORT_CHUNK_SIZE,
+                EmployeeImportService.IMPORT_CHUNK_SIZE, 1);
+        verify(employeeService, times(3)).saveEmployees(anyList());
+    }
+
+    @DisplayName("JUnit test for importing an ndjson upload with malformed lines")
+    @Test
+    public void givenMalformedNdjsonLine_whenImporting_thenReportLineAndContinue() throws IOException {
+        // given - precondition or setup
+        String ndjson = """
+                {"firstname":"first","lastname":"name","email":"an@gmail.com"}
+                {"firstname":"first",
+                null
+
+                {"firstname":"second","lastname":"name","email":"second@gmail.com"}
+                """;
+        givenSaveEmployeesMarksDuplicates();
+
+        // when - action that will be tested
+        EmployeeImportReport report = employeeImportService.importEmployees(stream(ndjson), EmployeeImportService.Format.NDJSON);
+
+        // then - the expected output
+        assertThat(report.rows()).isEqualTo(4);
+        assertThat(report.created()).isEqualTo(2);
+        assertThat(report.errors()).extracting(EmployeeBatchResult::index).containsExactly(2, 3);
+    }
+
+    @DisplayName("JUnit test for importing a chunk that violates a constraint when it is written")
+    @Test
+    public void givenChunkFailingOnFlush_whenImporting_thenSaveRowsOneByOneAndReportTheFailedRow() throws IOException {
+        // given - precondition or setup
+        String csv = """
+                firstname,lastname,email
+                first,name,an@gmail.com
+                second,name,raced@gmail.com
+                """;
+        DataIntegrityViolationException raced = new DataIntegrityViolationException("email taken");
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> chunk = invocation.getArgument(0);
+            if (chunk.stream().anyMatch(employee -> employee.getEmail().equals("raced@gmail.com")))
+                throw raced;
+            return List.of(EmployeeBatchResult.created(0, chunk.getFirst().getEmail(), 1));
+        });
+
+        // when - action that will be tested
+        EmployeeImportReport report = employeeImportService.importEmployees(stream(csv), EmployeeImportService.Format.CSV);
+
+        // then - the expected output
+        assertThat(report.created()).isEqualTo(1);
+        assertThat(report.invalid()).isEqualTo(1);
+        assertThat(report.errors()).extracting(EmployeeBatchResult::index, EmployeeBatchResult::email)
+                .containsExactly(tuple(3, "raced@gmail.com"));
+        verify(employeeService, times(3)).saveEmployees(anyList());
+    }
+
+    @DisplayName("JUnit test for importing a csv upload without the required columns")
+    @Test
+    public void givenCsvWithoutEmailColumn_whenImporting_thenThrowException() {
+        // given - precondition or setup
+        String csv = "firstname,lastname\nfirst,name\n";
+
+        // when - action that will be tested
+        assertThrows(BadRequestException.class,
+                () -> employeeImportService.importEmployees(stream(csv), EmployeeImportService.Format.CSV));
+
+        // then - the expected output
+        verifyNoInteractions(employeeService);
+    }
+
+    // mimics saveEmployees, the given emails already exist and every other complete row is created
+    private void givenSaveEmployeesMarksDuplicates(String... takenEmails) {
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> chunk = invocation.getArgument(0);
+            chunkSizes.add(chunk.size());
+            List<EmployeeBatchResult> results = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                Employee employee = chunk.get(i);
+                if (employee.getLastname() == null)
+                    results.add(EmployeeBatchResult.invalid(i, employee.getEmail(), "firstname, lastname and email are required"));
+                else if (List.of(takenEmails).contains(employee.getEmail()))
+                    results.add(EmployeeBatchResult.duplicate(i, employee.getEmail()));
+                else
+                    results.add(EmployeeBatchResult.created(i, employee.getEmail(), i + 1));
+            }
+            return results;
+        });
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.dto.EmployeeChange;
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.model.EmployeeOutboxCursor;
+import com.example.springboottestingcourse.model.EmployeeOutboxEvent;
+import com.example.springboottestingcourse.repository.EmployeeOutboxRepository;
+import com.example.springboottestingcourse.service.impl.EmployeeOutboxServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeOutboxServiceTests {
+
+    @Mock
+    private EmployeeOutboxRepository outboxRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final List<EmployeeChange> published = new ArrayList<>();
+
+    private EmployeeOutboxServiceImpl outboxService;
+
+    @BeforeEach
+    public void setup(){
+        outboxService = new EmployeeOutboxServiceImpl(outboxRepository, entityManager, published::addAll,
+                new ObjectMapper().findAndRegisterModules());
+    }
+
+    @DisplayName("JUnit test for writing one outbox row per saved and deleted employee")
+    @Test
+    @SuppressWarnings("unchecked")
+    public void givenChangedEvent_whenRecord_thenSaveOutboxRows() {
+        // given - precondition or setup
+        Employee employee = Employee.builder().id(1L).firstname("John")
+                .lastname("Smith").email("jsmith@gmail.com").build();
+        ArgumentCaptor<List<EmployeeOutboxEvent>> rows = ArgumentCaptor.forClass(List.class);
+
+        // when - action that will be tested
+        outboxService.record(new EmployeeChangedEvent(List.of(employee), List.of(2L)));
+
+        // then - the expected output
+        verify(entityManager).flush();
+        verify(outboxRepository).saveAll(rows.capture());
+        assertThat(rows.getValue()).extracting(EmployeeOutboxEvent::getEmployeeId, EmployeeOutboxEvent::getType)
+                .containsExactly(tuple(1L, EmployeeOutboxEvent.Type.SAVED),
+                        tuple(2L, EmployeeOutboxEvent.Type.DELETED));
+        assertThat(rows.getValue().getFirst().getPayload()).contains("\"email\":\"jsmith@gmail.com\"");
+        assertThat(rows.getValue().getLast().getPayload()).isNull();
+    }
+
+    @DisplayName("JUnit test for numbering unpublished events after the cursor and handing them to the sink")
+    @Test
+    public void givenUnpublishedEvents_whenRelay_thenNumberAfterCursorAndPublish() {
+        // given - precondition or setup
+        EmployeeOutboxCursor cursor = new EmployeeOutboxCursor(EmployeeOutboxCursor.ID, 7);
+        given(outboxRepository.lockCursor()).willReturn(Optional.of(cursor));
+        given(outboxRepository.findUnpublished(Limit.of(10))).willReturn(List.of(
+                EmployeeOutboxEvent.builder().id(3L).employeeId(1L).type(EmployeeOutboxEvent.Type.SAVED).build(),
+                EmployeeOutboxEvent.builder().id(4L).employeeId(1L).type(EmployeeOutboxEvent.Type.DELETED).build()));
+
+        // when - action that will be tested
+        int relayed = outboxService.relay(10);
+
+        // then - the expected output
+        assertThat(relayed).isEqualTo(2);
+        assertThat(published).extracting(EmployeeChange::sequence, EmployeeChange::eventId)
+                .containsExactly(tuple(8L, 3L),
+                        tuple(9L, 4L));
+        assertThat(cursor.getLastSequence()).isEqualTo(9);
+    }
+
+    @DisplayName("JUnit test for failing the relay batch when the sink throws")
+    @Test
+    public void givenFailingSink_whenRelay_thenThrowSoTheBatchRollsBack() {
+        // given - precondition or setup
+        outboxService = new EmployeeOutboxServiceImpl(outboxRepository, entityManager, changes -> {
+            throw new IOException("disk full");
+        }, new ObjectMapper());
+        given(outboxRepository.lockCursor()).willReturn(Optional.empty());
+        given(outboxRepository.findUnpublished(Limit.of(10))).willReturn(List.of(
+                EmployeeOutboxEvent.builder().id(3L).employeeId(1L).type(EmployeeOutboxEvent.Type.DELETED).build()));
+
+        // when - action that will be tested and then - the expected output
+        assertThatThrownBy(() -> outboxService.relay(10))
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("disk full");
+        verify(entityManager).persist(new EmployeeOutboxCursor(EmployeeOutboxCursor.ID, 1));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.dto.EmployeeSuggestion;
+import com.example.springboottestingcourse.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeSearchIndexTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        employeeSearchIndex = new EmployeeSearchIndex(employeeService);
+        employee = Employee.builder().id(1L).firstname("John")
+                .lastname("Smith").email("jsmith@gmail.com").build();
+    }
+
+    @DisplayName("JUnit test for loading the search index at startup")
+    @Test
+    public void givenStoredEmployees_whenLoadingIndex_thenSuggestThem() {
+        // given - precondition or setup
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(employee);
+            return null;
+        }).given(employeeService).streamAllEmployees(any());
+
+        // when - action that will be tested
+        employeeSearchIndex.afterSingletonsInstantiated();
+
+        // then - the expected output
+        assertThat(employeeSearchIndex.size()).isEqualTo(1);
+        assertThat(employeeSearchIndex.suggest("jo", 10))
+                .containsExactly(new EmployeeSuggestion(1L, "John", "Smith", "jsmith@gmail.com"));
+    }
+
+    @DisplayName("JUnit test for suggesting employees by name, full name and email prefixes")
+    @Test
+    public void givenIndexedEmployees_whenSuggesting_thenMatchAnyTermPrefixCaseInsensitively() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder().id(2L).firstname("Jane")
+                .lastname("Doe").email("jdoe@gmail.com").build();
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.saved(List.of(employee, employee2)));
+
+        // when - action that will be tested
+
+        // then - the expected output
+        assertThat(employeeSearchIndex.suggest("J", 10)).extracting(EmployeeSuggestion::id).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(employeeSearchIndex.suggest("smi", 10)).extracting(EmployeeSuggestion::id).containsExactly(1L);
+        assertThat(employeeSearchIndex.suggest("jane d", 10)).extracting(EmployeeSuggestion::id).containsExactly(2L);
+        assertThat(employeeSearchIndex.suggest("jdoe@", 10)).extracting(EmployeeSuggestion::id).containsExactly(2L);
+        assertThat(employeeSearchIndex.suggest("x", 10)).isEmpty();
+        assertThat(employeeSearchIndex.suggest("  ", 10)).isEmpty();
+    }
+
+    @DisplayName("JUnit test for the search index following updates and deletes")
+    @Test
+    public void givenIndexedEmployee_whenUpdatingAndDeleting_thenIndexFollows() {
+        // given - precondition or setup
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.saved(employee));
+
+        // when - action that will be tested
+        Employee renamed = Employee.builder().id(1L).firstname("Jack")
+                .lastname("Smith").email("jsmith@gmail.com").build();
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.saved(renamed));
+        List<EmployeeSuggestion> afterRename = employeeSearchIndex.suggest("john", 10);
+        List<EmployeeSuggestion> byNewName = employeeSearchIndex.suggest("jack", 10);
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(1L));
+
+        // then - the expected output
+        assertThat(afterRename).isEmpty();
+        assertThat(byNewName).extracting(EmployeeSuggestion::firstname).containsExactly("Jack");
+        assertThat(employeeSearchIndex.suggest("smith", 10)).isEmpty();
+        assertThat(employeeSearchIndex.size()).isEqualTo(0);
+    }
+
+    @DisplayName("JUnit test for the suggestion limit")
+    @Test
+    public void givenManyMatches_whenSuggesting_thenReturnAtMostTheLimit() {
+        // given - precondition or setup
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.saved(IntStream.rangeClosed(1, 100)
+                .mapToObj(i -> Employee.builder().id(i).firstname("first" + i)
+                        .lastname("last").email("e" + i + "@gmail.com").build())
+                .toList()));
+
+        // when - action that will be tested
+
+        // then - the expected output
+        assertThat(employeeSearchIndex.suggest("first", 5)).hasSize(5);
+        assertThat(employeeSearchIndex.suggest("last", 1000)).hasSize(EmployeeSearchIndex.MAX_SUGGESTIONS);
+    }
+}
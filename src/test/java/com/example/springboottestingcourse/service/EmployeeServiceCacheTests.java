@@ -0,0 +1,148 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.config.BatchLoaderConfig;
+import com.example.springboottestingcourse.config.CacheConfig;
+import com.example.springboottestingcourse.model.Employee;
+import com.example.springboottestingcourse.repository.EmployeeRepository;
+import com.example.springboottestingcourse.service.impl.EmployeeServiceImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// loads only the cache configuration and the service so the cache proxy is in front of the mocked repository.
+// the batch loader turns the sequential lookups here into plain findById calls
+@SpringJUnitConfig({CacheConfig.class, BatchLoaderConfig.class, EmployeeBatchLoader.class, EmployeeServiceImpl.class})
+public class EmployeeServiceCacheTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @MockBean
+    private EntityManagerFactory entityManagerFactory;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup(){
+        cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).clear();
+        employee = Employee.builder().id(1L).firstname("first")
+                .lastname("name").email("an@gmail.com").build();
+    }
+
+    @DisplayName("JUnit test for repeated get employee by ID served from the cache")
+    @Test
+    public void givenCachedEmployee_whenGettingEmployeeByIdTwice_thenHitDatabaseOnce() {
+        // given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        CacheStats before = nativeCache().stats();
+
+        // when - action that will be tested
+        employeeService.getEmployeeById(1L);
+        Optional<Employee> cached = employeeService.getEmployeeById(1L);
+
+        // then - the expected output
+        assertThat(cached).contains(employee);
+        verify(employeeRepository, times(1)).findById(1L);
+        CacheStats stats = nativeCache().stats().minus(before);
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+    }
+
+    @DisplayName("JUnit test for get employee by ID not caching missing employees")
+    @Test
+    public void givenMissingEmployee_whenGettingEmployeeByIdTwice_thenHitDatabaseTwice() {
+        // given - precondition or setup
+        given(employeeRepository.findById(2L)).willReturn(Optional.empty());
+
+        // when - action that will be tested
+        employeeService.getEmployeeById(2L);
+        employeeService.getEmployeeById(2L);
+
+        // then - the expected output
+        verify(employeeRepository, times(2)).findById(2L);
+    }
+
+    @DisplayName("JUnit test for save employee populating the cache")
+    @Test
+    public void givenNewEmployee_whenSaving_thenGetEmployeeByIdIsServedFromCache() {
+        // given - precondition or setup
+        Employee request = Employee.builder().firstname("first")
+                .lastname("name").email("an@gmail.com").build();
+        given(employeeRepository.saveAndFlush(any(Employee.class))).willReturn(employee);
+
+        // when - action that will be tested
+        employeeService.saveEmployee(request);
+        Optional<Employee> cached = employeeService.getEmployeeById(1L);
+
+        // then - the expected output
+        assertThat(cached).contains(employee);
+        verify(employeeRepository, times(0)).findById(1L);
+    }
+
+    @DisplayName("JUnit test for update employee evicting the cached entry")
+    @Test
+    public void givenCachedEmployee_whenUpdating_thenCacheEntryIsEvicted() {
+        // given - precondition or setup
+        Employee update = Employee.builder().firstname("first updated")
+                .lastname("name").email("an@gmail.com").build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        given(employeeRepository.updateById(eq(1L), any(), any(), any(), any())).willReturn(1);
+        org.hibernate.Cache secondLevelCache = Mockito.mock(org.hibernate.Cache.class);
+        given(entityManagerFactory.getCache()).willReturn(secondLevelCache);
+        given(secondLevelCache.unwrap(org.hibernate.Cache.class)).willReturn(secondLevelCache);
+        employeeService.getEmployeeById(1L);
+
+        // when - action that will be tested
+        employeeService.updateEmployee(1L, update);
+
+        // then - the expected output
+        // the new version is not known to the service, a cached copy would carry a wrong etag
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(1L)).isNull();
+    }
+
+    @DisplayName("JUnit test for delete employee evicting the cached entry")
+    @Test
+    public void givenCachedEmployee_whenDeleting_thenCacheEntryIsEvicted() {
+        // given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+
+        // when - action that will be tested
+        employeeService.deleteEmployee(1L);
+
+        // then - the expected output
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(1L)).isNull();
+    }
+
+    private Cache<Object, Object> nativeCache() {
+        return ((CaffeineCache) cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE)).getNativeCache();
+    }
+}
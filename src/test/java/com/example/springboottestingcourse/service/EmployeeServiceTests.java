@@ -1,26 +1,48 @@
 package com.example.springboottestingcourse.service;
 
+import com.example.springboottestingcourse.dto.EmployeeBatchResult;
+import com.example.springboottestingcourse.dto.EmployeePage;
+import com.example.springboottestingcourse.dto.EmployeeView;
+import com.example.springboottestingcourse.exception.BadRequestException;
 import com.example.springboottestingcourse.exception.ResourceNotFoundException;
 import com.example.springboottestingcourse.model.Employee;
 import com.example.springboottestingcourse.repository.EmployeeRepository;
 import com.example.springboottestingcourse.service.impl.EmployeeServiceImpl;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+import static com.example.springboottestingcourse.config.CacheConfig.EMPLOYEES_CACHE;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class) // this is used to indicate that mockito will be used in this class
@@ -29,6 +51,21 @@ public class EmployeeServiceTests {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private EmployeeBatchLoader employeeLoader;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -52,10 +89,7 @@ public class EmployeeServiceTests {
 //
 //        BDDMockito.given(employeeRepository.save(employee)).willReturn(employee);
 
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.empty());
-
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
         // when - action that will be tested
 
@@ -64,14 +98,16 @@ public class EmployeeServiceTests {
         // then - the expected output
 
         assertThat(savedEmployee).isNotNull();
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.saved(employee));
     }
 
     @DisplayName("JUnit test for save employee which will throw exception")
     @Test
     public void givenEmployeeObj_whenSaveEmployeeObj_thenThrowException() {
 
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("duplicate email",
+                        new ConstraintViolationException("Duplicate entry", null, Employee.EMAIL_CONSTRAINT)));
 
         // when - action that will be tested
         org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class,
@@ -79,7 +115,20 @@ public class EmployeeServiceTests {
         // this also works
 //        assertThatThrownBy(() -> employeeService.saveEmployee(employee));
         // then - the expected output
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(any(String.class));
+    }
+
+    @DisplayName("JUnit test for save employee which violates a constraint other than the email one")
+    @Test
+    public void givenEmployeeWithoutName_whenSaveEmployeeObj_thenRethrowViolation() {
+
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("not null",
+                        new ConstraintViolationException("Column cannot be null", null, null)));
+
+        // when - action that will be tested
+        org.junit.jupiter.api.Assertions.assertThrows(DataIntegrityViolationException.class,
+                () -> employeeService.saveEmployee(employee));
     }
     // same test
 //    @Test
@@ -95,17 +144,42 @@ public class EmployeeServiceTests {
 //        // Assert the exception message
 //        assertEquals("Employee already found with email: " + employee.getEmail(), exception.getMessage());
 //    }
+    @DisplayName("JUnit test for batch save employees")
+    @Test
+    public void givenEmployeeObjs_whenSavingEmployees_thenInsertNewAndReportDuplicates() {
+        // given - precondition or setup
+        Employee taken = Employee.builder().firstname("taken")
+                .lastname("name").email("taken@gmail.com").build();
+        // emails differing only in case are the same email to the unique index
+        Employee repeated = Employee.builder().firstname("repeated")
+                .lastname("name").email(employee.getEmail().toUpperCase()).build();
+        Employee invalid = Employee.builder().firstname("invalid").build();
+        given(employeeRepository.findExistingEmails(List.of(employee.getEmail(), taken.getEmail(), repeated.getEmail())))
+                .willReturn(Set.of("Taken@gmail.com"));
+
+        // when - action that will be tested
+
+        List<EmployeeBatchResult> results = employeeService.saveEmployees(List.of(employee, taken, repeated, invalid));
+
+        // then - the expected output
+        assertThat(results).extracting(EmployeeBatchResult::status).containsExactly(
+                EmployeeBatchResult.Status.CREATED, EmployeeBatchResult.Status.DUPLICATE,
+                EmployeeBatchResult.Status.DUPLICATE, EmployeeBatchResult.Status.INVALID);
+        verify(entityManager, times(1)).persist(employee);
+        verify(employeeRepository, times(1)).flush();
+    }
+
     @DisplayName("JUnit test for get all employees (positive scenario)")
     @Test
     public void givenEmployeeObjs_whenGettingEmployeeObjs_thenReturnEmployeesList() {
         // given - precondition or setup
-        Employee employee2 = Employee.builder().firstname("second")
-                .lastname("last").email("sec@gmail.com").build();
-        given(employeeRepository.findAll()).willReturn(List.of(employee, employee2));
+        EmployeeView employee1 = new EmployeeView(1L, "first", "name", "an@gmail.com", 0, null);
+        EmployeeView employee2 = new EmployeeView(2L, "second", "last", "sec@gmail.com", 0, null);
+        given(employeeRepository.findAllViews()).willReturn(List.of(employee1, employee2));
 
         // when - action that will be tested
 
-        List<Employee> employees = employeeService.getAllEmployees();
+        List<EmployeeView> employees = employeeService.getAllEmployees();
 
         // then - the expected output
         assertThat(employees).isNotNull();
@@ -116,24 +190,102 @@ public class EmployeeServiceTests {
     @Test
     public void givenEmptyEmployeesList_whenGettingEmployeesList_thenReturnEmptyEmployeesList() {
         // given - precondition or setup
-        given(employeeRepository.findAll()).willReturn(List.of());
+        given(employeeRepository.findAllViews()).willReturn(List.of());
 
         // when - action that will be tested
 
-        List<Employee> employees = employeeService.getAllEmployees();
+        List<EmployeeView> employees = employeeService.getAllEmployees();
 
         // then - the expected output
         assertThat(employees).isNotNull();
         assertThat(employees.size()).isEqualTo(0);
     }
 
+    @DisplayName("JUnit test for get a keyset page of employees")
+    @Test
+    public void givenFullPage_whenGettingEmployeesPage_thenReturnNextCursor() {
+        // given - precondition or setup
+        EmployeeView employee1 = new EmployeeView(5L, "first", "name", "an@gmail.com", 0, null);
+        EmployeeView employee2 = new EmployeeView(6L, "second", "last", "sec@gmail.com", 0, null);
+        given(employeeRepository.findViewPageAfter(4L, Limit.of(2))).willReturn(List.of(employee1, employee2));
+
+        // when - action that will be tested
+
+        EmployeePage<EmployeeView> page = employeeService.getEmployeesPage(4L, 2);
+
+        // then - the expected output
+        assertThat(page.content()).hasSize(2);
+        assertThat(page.nextCursor()).isEqualTo(6L);
+    }
+
+    @DisplayName("JUnit test for get the last keyset page of employees")
+    @Test
+    public void givenPartialPage_whenGettingEmployeesPage_thenReturnNoCursor() {
+        // given - precondition or setup
+        given(employeeRepository.findViewPageAfter(0L, Limit.of(10)))
+                .willReturn(List.of(new EmployeeView(1L, "first", "name", "an@gmail.com", 0, null)));
+
+        // when - action that will be tested
+
+        EmployeePage<EmployeeView> page = employeeService.getEmployeesPage(0L, 10);
+
+        // then - the expected output
+        assertThat(page.content()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @DisplayName("JUnit test for get a keyset page of selected employee fields")
+    @Test
+    public void givenFieldsWithoutId_whenGettingEmployeeFieldsPage_thenSelectIdForCursorOnly() {
+        // given - precondition or setup
+        given(employeeRepository.findFields(eq(List.of("email", "id")), any(), eq(Limit.of(2)))).willReturn(List.of(
+                new HashMap<>(Map.of("id", 5L, "email", "an@gmail.com")),
+                new HashMap<>(Map.of("id", 6L, "email", "sec@gmail.com"))));
+
+        // when - action that will be tested
+
+        EmployeePage<Map<String, Object>> page = employeeService.getEmployeeFieldsPage(List.of("email"), 4L, 2);
+
+        // then - the expected output
+        assertThat(page.nextCursor()).isEqualTo(6L);
+        assertThat(page.content()).containsExactly(Map.of("email", "an@gmail.com"), Map.of("email", "sec@gmail.com"));
+    }
+
+    @DisplayName("JUnit test for get employee fields with an unknown field")
+    @Test
+    public void givenUnknownField_whenGettingEmployeeFields_thenThrowException() {
+        // when - action that will be tested
+        assertThrows(BadRequestException.class, () -> employeeService.getEmployeeFieldsPage(List.of("id", "salary"), 0L, 10));
+
+        // then - the expected output
+        verify(employeeRepository, never()).findFields(any(), any(), any());
+    }
+
+    @DisplayName("JUnit test for streaming all employees")
+    @Test
+    public void givenEmployeeObjs_whenStreamingEmployees_thenConsumeAndDetachEach() {
+        // given - precondition or setup
+        Employee employee2 = Employee.builder().firstname("second")
+                .lastname("last").email("sec@gmail.com").build();
+        given(employeeRepository.streamAll()).willReturn(Stream.of(employee, employee2));
+        List<Employee> consumed = new ArrayList<>();
+
+        // when - action that will be tested
+
+        employeeService.streamAllEmployees(consumed::add);
+
+        // then - the expected output
+        assertThat(consumed).containsExactly(employee, employee2);
+        verify(entityManager, times(2)).detach(any(Employee.class));
+    }
+
     @DisplayName("JUnit test for get employee by ID")
     @Test
     public void givenEmployeeID_whenGettingEmployeeById_thenReturnEmployee() {
         // given - precondition or setup
         long id = 1L;
         employee.setId(id);
-        given(employeeRepository.findById(id)).willReturn(Optional.ofNullable(employee));
+        given(employeeLoader.findById(id)).willReturn(Optional.ofNullable(employee));
 
         // when - action that will be tested
 
@@ -148,7 +300,7 @@ public class EmployeeServiceTests {
     @Test
     public void getEmployeeById_NotFound() {
         // Mock the repository call
-        when(employeeRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(employeeLoader.findById(anyLong())).thenReturn(Optional.empty());
 
         // Call the service method
         Optional<Employee> result = employeeService.getEmployeeById(999L);
@@ -172,18 +324,26 @@ public class EmployeeServiceTests {
         // given - precondition or setup
 
         long id = 1L;
-        employee.setId(id);
-
-        given(employeeRepository.findById(id)).willReturn(Optional.of(employee));
+        Employee update = Employee.builder().firstname("first updated")
+                .lastname(employee.getLastname()).email(employee.getEmail()).build();
+        given(employeeRepository.updateById(eq(id), eq("first updated"), eq("name"), eq("an@gmail.com"), any(Instant.class)))
+                .willReturn(1);
+        org.hibernate.Cache secondLevelCache = secondLevelCache();
 
         // when - action that will be tested
 
-        employee.setFirstname("first updated");
-        Optional<Employee> updatedEmployee = employeeService.updateEmployee(id, employee);
+        Optional<Employee> updatedEmployee = employeeService.updateEmployee(id, update);
 
         // then - the expected output
-        assertThat(updatedEmployee.isPresent()).isTrue();
-        assertThat(updatedEmployee.get().getFirstname()).isEqualTo("first updated");
+        assertThat(updatedEmployee).get().satisfies(written -> {
+            assertThat(written.getId()).isEqualTo(id);
+            assertThat(written.getFirstname()).isEqualTo("first updated");
+            assertThat(written.getUpdatedAt()).isNotNull();
+        });
+        verify(employeeRepository, never()).findById(anyLong());
+        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(secondLevelCache).evict(Employee.class, id);
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.saved(updatedEmployee.get()));
 
     }
 
@@ -191,13 +351,177 @@ public class EmployeeServiceTests {
     @Test
     public void givenEmployeeIDAndObj_whenUpdatingEmployeeByIdAndObj_thenThrowError() {
         // Mock the repository call
-        when(employeeRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(employeeRepository.updateById(anyLong(), any(), any(), any(), any())).thenReturn(0);
 
         // Call the service method
         Optional<Employee> result = employeeService.updateEmployee(999L, employee);
 
         // Assert the result
         assertFalse(result.isPresent());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @DisplayName("JUnit test for updating several employees in one transaction")
+    @Test
+    public void givenUpdatesForSeveralIds_whenUpdateEmployees_thenChangeLoadedRowsAndSkipMissingOnes() {
+        // given - precondition or setup
+
+        employee.setId(1L);
+        Map<Long, Employee> updates = new HashMap<>();
+        updates.put(1L, Employee.builder().firstname("first updated").lastname("name").email("an@gmail.com").build());
+        updates.put(2L, Employee.builder().firstname("gone").lastname("name").email("gone@gmail.com").build());
+        given(employeeRepository.findAllById(updates.keySet())).willReturn(List.of(employee));
+        Cache cache = new ConcurrentMapCache(EMPLOYEES_CACHE);
+        given(cacheManager.getCache(EMPLOYEES_CACHE)).willReturn(cache);
+
+        // when - action that will be tested
+
+        List<Employee> updated = employeeService.updateEmployees(updates);
+
+        // then - the expected output
+        assertThat(updated).containsExactly(employee);
+        assertThat(employee.getFirstname()).isEqualTo("first updated");
+        assertThat(cache.get(1L, Employee.class)).isSameAs(employee);
+        verify(employeeRepository).flush();
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.saved(List.of(employee)));
+    }
+
+    @DisplayName("JUnit test for update employee at the expected version")
+    @Test
+    public void givenCurrentVersion_whenUpdatingEmployee_thenReturnNextVersion() {
+        // given - precondition or setup
+
+        Employee current = Employee.builder().id(1L).firstname("first")
+                .lastname("name").email("an@gmail.com").version(3).build();
+        employee.setFirstname("first updated");
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(current));
+
+        // when - action that will be tested
+
+        Employee updatedEmployee = employeeService.updateEmployee(1L, employee, 3L);
+
+        // then - the expected output
+        assertThat(updatedEmployee).isSameAs(current);
+        assertThat(updatedEmployee.getFirstname()).isEqualTo("first updated");
+        verify(employeeRepository).flush();
+    }
+
+    @DisplayName("JUnit test for update employee at a stale version")
+    @Test
+    public void givenStaleVersion_whenUpdatingEmployee_thenThrowException() {
+        // given - precondition or setup
+
+        Employee current = Employee.builder().id(1L).firstname("first")
+                .lastname("name").email("an@gmail.com").version(3).build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(current));
+
+        // when - action that will be tested
+        assertThrows(OptimisticLockingFailureException.class, () -> employeeService.updateEmployee(1L, employee, 2L));
+
+        // then - the expected output
+        assertThat(current.getFirstname()).isEqualTo("first");
+        verify(employeeRepository, never()).flush();
+    }
+
+    @DisplayName("JUnit test for patch employee at a stale version")
+    @Test
+    public void givenStaleVersion_whenPatchingEmployee_thenThrowException() {
+        // given - precondition or setup
+
+        employee.setVersion(3);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        // when - action that will be tested
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> employeeService.patchEmployee(1L, Map.of("firstname", "first patched"), 2L));
+
+        // then - the expected output
+        assertThat(employee.getFirstname()).isEqualTo("first");
+    }
+
+    @DisplayName("JUnit test for patch employee with a json merge patch")
+    @Test
+    public void givenMergePatch_whenPatchingEmployee_thenOnlyPatchedFieldChanges() {
+        // given - precondition or setup
+
+        employee.setId(1L);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        // when - action that will be tested
+
+        Optional<Employee> patchedEmployee = employeeService.patchEmployee(1L, Map.of("firstname", "first patched"));
+
+        // then - the expected output
+        assertThat(patchedEmployee).isPresent();
+        assertThat(patchedEmployee.get().getFirstname()).isEqualTo("first patched");
+        assertThat(patchedEmployee.get().getLastname()).isEqualTo("name");
+        assertThat(patchedEmployee.get().getEmail()).isEqualTo("an@gmail.com");
+        // the managed entity is flushed by dirty checking, nothing is saved explicitly
+        verify(employeeRepository, never()).save(any(Employee.class));
+        InOrder inOrder = inOrder(employeeRepository, eventPublisher);
+        inOrder.verify(employeeRepository).flush();
+        inOrder.verify(eventPublisher).publishEvent(EmployeeChangedEvent.saved(employee));
+    }
+
+    @DisplayName("JUnit test for patch employee with a patch that changes nothing")
+    @Test
+    public void givenPatchWithCurrentValues_whenPatchingEmployee_thenNothingIsAnnounced() {
+        // given - precondition or setup
+        employee.setId(1L);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        // when - action that will be tested
+        Optional<Employee> patchedEmployee = employeeService.patchEmployee(1L,
+                Map.of("firstname", employee.getFirstname(), "email", employee.getEmail()));
+
+        // then - the expected output
+        assertThat(patchedEmployee).containsSame(employee);
+        verify(employeeRepository, never()).flush();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @DisplayName("JUnit test for patch employee with a patch that removes a required field")
+    @Test
+    public void givenNullMember_whenPatchingEmployee_thenThrowException() {
+        // given - precondition or setup
+
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("email", null);
+
+        // when - action that will be tested
+        assertThrows(BadRequestException.class, () -> employeeService.patchEmployee(1L, patch));
+
+        // then - the expected output
+        assertThat(employee.getEmail()).isEqualTo("an@gmail.com");
+    }
+
+    @DisplayName("JUnit test for patch employee with an unknown field")
+    @Test
+    public void givenUnknownField_whenPatchingEmployee_thenThrowException() {
+        // given - precondition or setup
+
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        // when - action that will be tested
+        assertThrows(BadRequestException.class,
+                () -> employeeService.patchEmployee(1L, Map.of("id", 5)));
+
+        // then - the expected output
+        assertThat(employee.getId()).isEqualTo(0);
+    }
+
+    @DisplayName("JUnit test for patch employee by ID (negative scenario)")
+    @Test
+    public void givenMissingEmployee_whenPatchingEmployee_thenReturnEmpty() {
+        // given - precondition or setup
+        given(employeeRepository.findById(999L)).willReturn(Optional.empty());
+
+        // when - action that will be tested
+        Optional<Employee> result = employeeService.patchEmployee(999L, Map.of("firstname", "first patched"));
+
+        // then - the expected output
+        assertFalse(result.isPresent());
     }
 
     @DisplayName("JUnit test for delete employee by ID")
@@ -205,7 +529,8 @@ public class EmployeeServiceTests {
     public void givenEmployeeID_whenDeletingEmployeeById_thenDeleteEmployee() {
         // given - precondition or setup
 
-        willDoNothing().given(employeeRepository).deleteById(1L);
+        employee.setId(1L);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
 
         // when - action that will be tested
 
@@ -213,10 +538,138 @@ public class EmployeeServiceTests {
 
         // then - the expected output
 
-        verify(employeeRepository, times(1)).deleteById(1L);
+        verify(employeeRepository, times(1)).delete(employee);
+        verify(employeeRepository).flush();
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(1L));
+
+    }
+
+    @DisplayName("JUnit test for delete employee by ID that does not exist")
+    @Test
+    public void givenMissingEmployeeID_whenDeletingEmployeeById_thenDeleteNothing() {
+        // given - precondition or setup
+        given(employeeRepository.findById(1L)).willReturn(Optional.empty());
+
+        // when - action that will be tested
+        employeeService.deleteEmployee(1L);
+
+        // then - the expected output
+        verify(employeeRepository, never()).delete(any(Employee.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @DisplayName("JUnit test for delete employee racing a concurrent update")
+    @Test
+    public void givenConcurrentUpdate_whenDeletingEmployeeById_thenThrowException() {
+        // given - precondition or setup
+        employee.setId(1L);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        willThrow(new OptimisticLockingFailureException("Employee 1 was updated")).given(employeeRepository).flush();
 
+        // when - action that will be tested
+        assertThrows(OptimisticLockingFailureException.class, () -> employeeService.deleteEmployee(1L));
+
+        // then - the expected output
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
+    @DisplayName("JUnit test for delete employee at a stale version")
+    @Test
+    public void givenStaleVersion_whenDeletingEmployee_thenThrowException() {
+        // given - precondition or setup
 
+        employee.setVersion(3);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
 
+        // when - action that will be tested
+        assertThrows(OptimisticLockingFailureException.class, () -> employeeService.deleteEmployee(1L, 2L));
+
+        // then - the expected output
+        verify(employeeRepository, never()).delete(any(Employee.class));
+    }
+
+    @DisplayName("JUnit test for bulk delete employees by ID")
+    @Test
+    public void givenEmployeeIds_whenDeletingEmployees_thenFlagThemInOneStatement() {
+        // given - precondition or setup
+
+        given(employeeRepository.softDeleteByIds(eq(List.of(1L, 2L, 3L)), any(Instant.class))).willReturn(3);
+        org.hibernate.Cache secondLevelCache = secondLevelCache();
+        Cache cache = new ConcurrentMapCache(EMPLOYEES_CACHE);
+        cache.put(1L, employee);
+        cache.put(4L, employee);
+        given(cacheManager.getCache(EMPLOYEES_CACHE)).willReturn(cache);
+
+        // when - action that will be tested
+
+        int deleted = employeeService.deleteEmployees(List.of(1L, 2L, 2L, 3L));
+
+        // then - the expected output
+
+        assertThat(deleted).isEqualTo(3);
+        verify(employeeRepository, never()).findAllById(any());
+        verify(employeeRepository, never()).findIdsDeletedAt(any(), any());
+        verify(secondLevelCache).evict(Employee.class, 1L);
+        verify(secondLevelCache).evict(Employee.class, 3L);
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(4L)).isNotNull();
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(List.of(1L, 2L, 3L)));
+    }
+
+    @DisplayName("JUnit test for bulk delete employees by name")
+    @Test
+    public void givenMatchingRows_whenDeletingEmployeesByName_thenFlagAtMostLimitAndAnnounceOnlyFlaggedOnes() {
+        // given - precondition or setup
+
+        given(employeeRepository.findFields(eq(List.of("id")), any(), eq(Limit.of(2))))
+                .willReturn(List.of(new HashMap<>(Map.of("id", 1L)), new HashMap<>(Map.of("id", 2L))));
+        // employee 1 is deleted by another request in between
+        given(employeeRepository.softDeleteByIds(eq(List.of(1L, 2L)), any(Instant.class))).willReturn(1);
+        given(employeeRepository.findIdsDeletedAt(eq(List.of(1L, 2L)), any(Instant.class))).willReturn(List.of(2L));
+        secondLevelCache();
+
+        // when - action that will be tested
+
+        int deleted = employeeService.deleteEmployeesByName("first", null, 2);
+
+        // then - the expected output
+
+        assertThat(deleted).isEqualTo(1);
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(List.of(2L)));
+    }
+
+    @DisplayName("JUnit test for bulk delete employees without a filter")
+    @Test
+    public void givenNoFilter_whenDeletingEmployeesByName_thenThrowException() {
+        // when - action that will be tested
+        assertThrows(BadRequestException.class, () -> employeeService.deleteEmployeesByName(null, null, 10));
+
+        // then - the expected output
+        verify(employeeRepository, never()).softDeleteByIds(any(), any());
+    }
+
+    @DisplayName("JUnit test for purging soft deleted employees in a batch")
+    @Test
+    public void givenDeletedEmployees_whenPurging_thenHardDeleteOneBatch() {
+        // given - precondition or setup
+
+        given(employeeRepository.findDeletedIds(2)).willReturn(List.of(4L, 7L));
+        given(employeeRepository.purgeByIds(List.of(4L, 7L))).willReturn(2);
+
+        // when - action that will be tested
+
+        int purged = employeeService.purgeDeletedEmployees(2);
+
+        // then - the expected output
+
+        assertThat(purged).isEqualTo(2);
+    }
+
+    // the second-level cache as seen through the entity manager factory, hibernate's Cache is also the jpa one
+    private org.hibernate.Cache secondLevelCache() {
+        org.hibernate.Cache cache = mock(org.hibernate.Cache.class);
+        given(entityManagerFactory.getCache()).willReturn(cache);
+        given(cache.unwrap(org.hibernate.Cache.class)).willReturn(cache);
+        return cache;
+    }
 }
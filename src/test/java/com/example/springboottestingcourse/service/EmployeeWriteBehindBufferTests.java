@@ -0,0 +1,147 @@
+package com.example.springboottestingcourse.service;
+
+import com.example.springboottestingcourse.config.EmployeeWriteBehindProperties;
+import com.example.springboottestingcourse.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeWriteBehindBufferTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeWriteBehindBuffer buffer;
+
+    private final Employee first = Employee.builder().id(1L).firstname("John")
+            .lastname("Smith").email("jsmith@gmail.com").build();
+
+    private final Employee renamed = Employee.builder().id(1L).firstname("Johnny")
+            .lastname("Smith").email("jsmith@gmail.com").build();
+
+    private final Employee other = Employee.builder().id(2L).firstname("Jane")
+            .lastname("Doe").email("jdoe@gmail.com").build();
+
+    @BeforeEach
+    public void setup(){
+        buffer = new EmployeeWriteBehindBuffer(employeeService, new EmployeeWriteBehindProperties(true,
+                EmployeeWriteBehindProperties.Durability.BUFFERED, 4, 100, 1000, Duration.ofMillis(500)));
+        buffer.start();
+    }
+
+    @DisplayName("JUnit test for writing only the latest buffered update of every employee in one batch")
+    @Test
+    public void givenBurstOfUpdates_whenFlush_thenWriteLatestUpdatePerEmployeeOnce() {
+        // given - precondition or setup
+        buffer.submit(1L, first);
+        buffer.submit(1L, renamed);
+        buffer.submit(2L, other);
+
+        // when - action that will be tested
+        int flushed = buffer.flush();
+
+        // then - the expected output
+        assertThat(flushed).isEqualTo(2);
+        assertThat(buffer.pendingCount()).isZero();
+        verify(employeeService).updateEmployees(Map.of(1L, renamed, 2L, other));
+    }
+
+    @DisplayName("JUnit test for retrying a failed batch one update at a time")
+    @Test
+    public void givenOneBadUpdate_whenFlush_thenOnlyItsWriterFails() throws Exception {
+        // given - precondition or setup
+        DataIntegrityViolationException taken = new DataIntegrityViolationException("email taken");
+        given(employeeService.updateEmployees(Map.of(1L, first, 2L, other))).willThrow(taken);
+        given(employeeService.updateEmployees(Map.of(1L, first))).willReturn(List.of(first));
+        given(employeeService.updateEmployees(Map.of(2L, other))).willThrow(taken);
+        CompletableFuture<Optional<Employee>> good = submitAndWaitAsync(1L, first);
+        CompletableFuture<Optional<Employee>> bad = submitAndWaitAsync(2L, other);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (buffer.pendingCount() < 2 && System.nanoTime() < deadline)
+            Thread.sleep(10);
+
+        // when - action that will be tested
+        buffer.flush();
+
+        // then - the expected output
+        assertThat(good.get(5, TimeUnit.SECONDS)).contains(first);
+        assertThatThrownBy(() -> bad.get(5, TimeUnit.SECONDS)).hasCause(taken);
+    }
+
+    @DisplayName("JUnit test for running the scheduled flush on the flusher thread")
+    @Test
+    public void givenBufferedUpdate_whenScheduledFlush_thenWriteOffTheSchedulerThread() {
+        // given - precondition or setup
+        buffer.submit(1L, first);
+
+        // when - action that will be tested
+        buffer.scheduledFlush();
+
+        // then - the expected output
+        verify(employeeService, timeout(5000)).updateEmployees(Map.of(1L, first));
+        assertThat(buffer.pendingCount()).isZero();
+    }
+
+    @DisplayName("JUnit test for giving up on a flush that takes longer than the flush timeout")
+    @Test
+    public void givenNoFlush_whenSubmitAndWait_thenTimeoutAndKeepTheUpdate() {
+        // given - precondition or setup
+        long started = System.nanoTime();
+
+        // when - action that will be tested
+        assertThatThrownBy(() -> buffer.submitAndWait(1L, first)).isInstanceOf(TimeoutException.class);
+
+        // then - the expected output
+        assertThat(System.nanoTime() - started).isLessThan(TimeUnit.SECONDS.toNanos(5));
+        assertThat(buffer.pendingCount()).isEqualTo(1);
+        verifyNoInteractions(employeeService);
+    }
+
+    @DisplayName("JUnit test for flushing buffered updates on shutdown")
+    @Test
+    public void givenBufferedUpdate_whenStop_thenFlushAndWriteLaterUpdatesDirectly() {
+        // given - precondition or setup
+        buffer.submit(1L, first);
+        verifyNoInteractions(employeeService);
+
+        // when - action that will be tested
+        buffer.stop();
+        buffer.submit(2L, other);
+
+        // then - the expected output
+        assertThat(buffer.isEnabled()).isFalse();
+        verify(employeeService).updateEmployees(Map.of(1L, first));
+        verify(employeeService).updateEmployees(Map.of(2L, other));
+    }
+
+    private CompletableFuture<Optional<Employee>> submitAndWaitAsync(Long id, Employee employee) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return buffer.submitAndWait(id, employee);
+            } catch (TimeoutException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+}